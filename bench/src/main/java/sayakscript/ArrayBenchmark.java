@@ -0,0 +1,55 @@
+package sayakscript;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+// Builds array literals through ArrayNode once per loop iteration; scores are per array.
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class ArrayBenchmark {
+    private static final int ITERATIONS = 10_000;
+    private static final String CONSTANT_ARRAYS =
+            "for sayak i in range(1 to " + ITERATIONS + "){le sayak a=[1, 2, 3, 4, 5, 6, 7, 8];}";
+    private static final String INT_ARRAYS =
+            "for sayak i in range(1 to " + ITERATIONS + "){le sayak a=[i, i+1, i*2, i*i];}";
+    private static final String MIXED_ARRAYS =
+            "for sayak i in range(1 to " + ITERATIONS + "){le sayak a=[i, 2.5, \"x\", i+1];}";
+
+    @Param({"vm", "tree"})
+    public String mode;
+
+    private SayakScriptInterpreter interpreter;
+
+    @Setup
+    public void setup() {
+        interpreter = BenchmarkSupport.interpreter(mode, "discard");
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(ITERATIONS)
+    public void constantElements() {
+        interpreter.execute(CONSTANT_ARRAYS);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(ITERATIONS)
+    public void intElements() {
+        interpreter.execute(INT_ARRAYS);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(ITERATIONS)
+    public void mixedElements() {
+        interpreter.execute(MIXED_ARRAYS);
+    }
+}
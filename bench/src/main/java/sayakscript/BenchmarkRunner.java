@@ -0,0 +1,153 @@
+package sayakscript;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.results.format.ResultFormatType;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.ChainedOptionsBuilder;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.openjdk.jmh.runner.options.TimeValue;
+
+// Runs the benchmarks and keeps one CSV of results per commit so runs can be compared later:
+//
+//   java -jar bench/target/benchmarks.jar [--gc] [--quick] [--label=NAME] [benchmark regex...]
+//   java -jar bench/target/benchmarks.jar compare OLD.csv NEW.csv
+//
+// --gc adds JMH's allocation profiler (-prof gc). Results go to bench/results/<label>.csv, where
+// the label defaults to `git describe --always --dirty`.
+public class BenchmarkRunner {
+    private static final Path RESULTS = Paths.get("bench", "results");
+
+    public static void main(String[] args) throws IOException, RunnerException {
+        if (args.length > 0 && args[0].equals("compare")) {
+            if (args.length != 3) {
+                System.out.println("Usage: BenchmarkRunner compare OLD.csv NEW.csv");
+                return;
+            }
+            compare(Paths.get(args[1]), Paths.get(args[2]));
+            return;
+        }
+
+        boolean gc = false;
+        boolean quick = false;
+        String label = null;
+        List<String> includes = new ArrayList<>();
+        for (String arg : args) {
+            if (arg.equals("--gc")) {
+                gc = true;
+            } else if (arg.equals("--quick")) {
+                quick = true;
+            } else if (arg.startsWith("--label=")) {
+                label = arg.substring("--label=".length());
+            } else if (!arg.startsWith("--")) {
+                includes.add(arg);
+            } else {
+                System.out.println("Unknown option: " + arg);
+                System.out.println("Usage: BenchmarkRunner [--gc] [--quick] [--label=NAME] [benchmark regex...]");
+                return;
+            }
+        }
+        if (label == null) label = gitDescribe();
+        if (gc) label += "-gc";
+
+        Files.createDirectories(RESULTS);
+        Path result = RESULTS.resolve(label + ".csv");
+        ChainedOptionsBuilder options = new OptionsBuilder()
+                .resultFormat(ResultFormatType.CSV)
+                .result(result.toString());
+        if (includes.isEmpty()) options.include("sayakscript\\..*Benchmark");
+        for (String include : includes) options.include(include);
+        if (gc) options.addProfiler(GCProfiler.class);
+        if (quick) {
+            options.forks(1)
+                    .warmupIterations(2).warmupTime(TimeValue.seconds(1))
+                    .measurementIterations(3).measurementTime(TimeValue.seconds(1));
+        } else {
+            options.forks(2)
+                    .warmupIterations(5).warmupTime(TimeValue.seconds(1))
+                    .measurementIterations(5).measurementTime(TimeValue.seconds(2));
+        }
+        new Runner(options.build()).run();
+        System.out.println("Results written to " + result);
+    }
+
+    private static String gitDescribe() {
+        try {
+            Process git = new ProcessBuilder("git", "describe", "--always", "--dirty").redirectErrorStream(true).start();
+            String out;
+            try (InputStream in = git.getInputStream()) {
+                out = new String(in.readAllBytes(), StandardCharsets.UTF_8).trim();
+            }
+            if (git.waitFor() == 0 && !out.isEmpty()) return out;
+        } catch (IOException e) {
+            // no git on the path: fall through
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        return "local";
+    }
+
+    // Prints every benchmark (and secondary metric such as gc.alloc.rate.norm) found in both
+    // files with its old and new score and the relative change.
+    private static void compare(Path oldFile, Path newFile) throws IOException {
+        Map<String, String[]> before = read(oldFile);
+        Map<String, String[]> after = read(newFile);
+        System.out.printf("%-70s %14s %14s %9s  %s%n", "Benchmark", "old", "new", "change", "unit");
+        for (Map.Entry<String, String[]> entry : after.entrySet()) {
+            String[] old = before.get(entry.getKey());
+            if (old == null) continue;
+            double oldScore = Double.parseDouble(old[0]);
+            double newScore = Double.parseDouble(entry.getValue()[0]);
+            String change = oldScore == 0 ? "n/a" : String.format("%+.1f%%", (newScore - oldScore) * 100 / oldScore);
+            System.out.printf("%-70s %14.3f %14.3f %9s  %s%n", entry.getKey(), oldScore, newScore, change, entry.getValue()[1]);
+        }
+    }
+
+    // Maps "benchmark [param=value ...]" to {score, unit}.
+    private static Map<String, String[]> read(Path file) throws IOException {
+        List<String> lines = Files.readAllLines(file, StandardCharsets.UTF_8);
+        Map<String, String[]> rows = new LinkedHashMap<>();
+        if (lines.isEmpty()) return rows;
+        List<String> header = columns(lines.get(0));
+        for (String line : lines.subList(1, lines.size())) {
+            List<String> row = columns(line);
+            if (row.size() < 7) continue;
+            StringBuilder key = new StringBuilder(row.get(0).replace("sayakscript.", ""));
+            for (int c = 7; c < row.size() && c < header.size(); c++) {
+                key.append(' ').append(header.get(c).replace("Param: ", "")).append('=').append(row.get(c));
+            }
+            rows.put(key.toString(), new String[] {row.get(4), row.get(6)});
+        }
+        return rows;
+    }
+
+    private static List<String> columns(String line) {
+        List<String> columns = new ArrayList<>();
+        StringBuilder column = new StringBuilder();
+        boolean quoted = false;
+        for (int i = 0; i < line.length(); i++) {
+            char c = line.charAt(i);
+            if (c == '"') {
+                quoted = !quoted;
+            } else if (c == ',' && !quoted) {
+                columns.add(column.toString());
+                column.setLength(0);
+            } else {
+                column.append(c);
+            }
+        }
+        columns.add(column.toString());
+        return columns;
+    }
+}
@@ -0,0 +1,74 @@
+package sayakscript;
+
+import java.nio.ByteBuffer;
+import java.nio.channels.WritableByteChannel;
+
+// Interpreters wired to sinks that throw output away, and generators for benchmark sources.
+final class BenchmarkSupport {
+    private BenchmarkSupport() {
+    }
+
+    static SayakScriptInterpreter interpreter(String mode, String sink) {
+        SayakScriptInterpreter interpreter = new SayakScriptInterpreter();
+        interpreter.setTreeWalker(mode.equals("tree"));
+        interpreter.setOutput(sink.equals("buffered") ? OutputSink.buffered(new NullChannel(), OutputSink.DEFAULT_BUFFER_SIZE)
+                : new DiscardingSink());
+        return interpreter;
+    }
+
+    // A mix of every statement kind, one per line, with distinct names and literals.
+    static String mixedSource(int statements) {
+        StringBuilder src = new StringBuilder(statements * 32);
+        for (int i = 0; i < statements; i++) {
+            switch (i % 5) {
+                case 0: src.append("le sayak x").append(i).append('=').append(i).append(" + 4.5 * y;\n"); break;
+                case 1: src.append("dekho(\"line ").append(i).append("\");\n"); break;
+                case 2: src.append("agar(x").append(i - 2).append(" >= ").append(i).append("){dekho(1);}warna{dekho(0);}\n"); break;
+                case 3: src.append("le sayak a").append(i).append("=[1, 2.5, \"s\", x").append(i - 3).append("];\n"); break;
+                default: src.append("for sayak i in range(1 to ").append(i).append("){le sayak t=t+i;}\n"); break;
+            }
+        }
+        return src.toString();
+    }
+
+    // agar and for blocks nested depth levels deep, each level with a warna branch and a print.
+    static String nestedSource(int depth) {
+        StringBuilder src = new StringBuilder();
+        for (int d = 0; d < depth; d++) {
+            if (d % 2 == 0) src.append("for sayak i").append(d).append(" in range(1 to 2){");
+            else src.append("agar(i").append(d - 1).append(" > 0){le sayak v").append(d).append("=v").append(d).append(" + 1;");
+        }
+        src.append("dekho(\"leaf\");");
+        for (int d = depth - 1; d >= 0; d--) {
+            if (d % 2 == 0) src.append('}');
+            else src.append("}warna{dekho(").append(d).append(");}");
+        }
+        return src.toString();
+    }
+
+    private static final class DiscardingSink extends OutputSink {
+        void print(String text) {
+        }
+
+        void println(String line) {
+        }
+
+        void flush() {
+        }
+    }
+
+    private static final class NullChannel implements WritableByteChannel {
+        public int write(ByteBuffer src) {
+            int n = src.remaining();
+            src.position(src.limit());
+            return n;
+        }
+
+        public boolean isOpen() {
+            return true;
+        }
+
+        public void close() {
+        }
+    }
+}
@@ -0,0 +1,49 @@
+package sayakscript;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+// String '+' in a loop: growing one string, and building short throwaway ones. Scores are per
+// iteration, so a growing string that is copied on every '+' shows up as a score rising with
+// the length.
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class ConcatBenchmark {
+    private static final int ITERATIONS = 10_000;
+    private static final String GROWING =
+            "le sayak s=\"\"; for sayak i in range(1 to " + ITERATIONS + "){le sayak s=s+i+\",\";}";
+    private static final String SHORT =
+            "for sayak i in range(1 to " + ITERATIONS + "){le sayak s=\"item \"+i;}";
+
+    @Param({"vm", "tree"})
+    public String mode;
+
+    private SayakScriptInterpreter interpreter;
+
+    @Setup
+    public void setup() {
+        interpreter = BenchmarkSupport.interpreter(mode, "discard");
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(ITERATIONS)
+    public void growingString() {
+        interpreter.execute(GROWING);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(ITERATIONS)
+    public void shortStrings() {
+        interpreter.execute(SHORT);
+    }
+}
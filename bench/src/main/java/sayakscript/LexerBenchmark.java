@@ -0,0 +1,50 @@
+package sayakscript;
+
+import java.io.StringReader;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+// Tokenizes a large generated source, either all at once from a String or streamed from a
+// Reader with tokens discarded after every statement, as the batch runner does.
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class LexerBenchmark {
+    @Param({"1000", "100000"})
+    public int statements;
+
+    private String source;
+
+    @Setup
+    public void setup() {
+        source = BenchmarkSupport.mixedSource(statements);
+    }
+
+    @Benchmark
+    public int tokenize() {
+        Lexer lexer = new Lexer(source);
+        int i = 0;
+        while (lexer.kind(i) != Lexer.EOF) i++;
+        return i;
+    }
+
+    @Benchmark
+    public int tokenizeStreaming() {
+        Lexer lexer = new Lexer(new StringReader(source));
+        int i = 0;
+        int kind;
+        while ((kind = lexer.kind(i)) != Lexer.EOF) {
+            i++;
+            if (kind == Lexer.SEMI) lexer.discard(i);
+        }
+        return i;
+    }
+}
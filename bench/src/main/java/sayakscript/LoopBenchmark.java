@@ -0,0 +1,64 @@
+package sayakscript;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+// Arithmetic-heavy for loops; scores are per loop iteration. The scripts are parsed once and
+// then come from the program cache, so this measures evaluation only.
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class LoopBenchmark {
+    private static final int ITERATIONS = 100_000;
+    private static final String INT_LOOP =
+            "le sayak s=0; for sayak i in range(1 to " + ITERATIONS + "){le sayak s=s+i*3+1;}";
+    private static final String FLOAT_LOOP =
+            "le sayak f=0.5; for sayak i in range(1 to " + ITERATIONS + "){le sayak f=f*1.0001+0.5;}";
+    private static final String BRANCHY_LOOP =
+            "le sayak n=0; for sayak i in range(1 to " + ITERATIONS + "){agar(i>50000){le sayak n=n+2;}warna{le sayak n=n+1;}}";
+    private static final String HOISTABLE_LOOP =
+            "le sayak k=7; le sayak s=0; for sayak i in range(1 to " + ITERATIONS + "){le sayak s=s+k*k+i;}";
+
+    @Param({"vm", "tree"})
+    public String mode;
+
+    private SayakScriptInterpreter interpreter;
+
+    @Setup
+    public void setup() {
+        interpreter = BenchmarkSupport.interpreter(mode, "discard");
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(ITERATIONS)
+    public void intArithmetic() {
+        interpreter.execute(INT_LOOP);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(ITERATIONS)
+    public void floatArithmetic() {
+        interpreter.execute(FLOAT_LOOP);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(ITERATIONS)
+    public void branches() {
+        interpreter.execute(BRANCHY_LOOP);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(ITERATIONS)
+    public void invariantExpression() {
+        interpreter.execute(HOISTABLE_LOOP);
+    }
+}
@@ -0,0 +1,40 @@
+package sayakscript;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+// Parses (without running) deeply nested agar/for blocks and a long flat mix of statements.
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class ParserBenchmark {
+    @Param({"8", "64", "256"})
+    public int depth;
+
+    private String nested;
+    private String flat;
+
+    @Setup
+    public void setup() {
+        nested = BenchmarkSupport.nestedSource(depth);
+        flat = BenchmarkSupport.mixedSource(depth * 16);
+    }
+
+    @Benchmark
+    public int parseNested() {
+        return Parser.parseAll(nested).length;
+    }
+
+    @Benchmark
+    public int parseFlat() {
+        return Parser.parseAll(flat).length;
+    }
+}
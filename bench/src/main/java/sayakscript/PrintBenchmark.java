@@ -0,0 +1,63 @@
+package sayakscript;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+// dekho in a loop; scores are per printed line. "discard" drops the text as soon as it is
+// formatted, "buffered" also encodes it into the buffered sink, which drains to a null channel.
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class PrintBenchmark {
+    private static final int ITERATIONS = 10_000;
+    private static final String PRINT_INTS = "for sayak i in range(1 to " + ITERATIONS + "){dekho(i);}";
+    private static final String PRINT_FLOATS = "for sayak i in range(1 to " + ITERATIONS + "){dekho(i*1.5);}";
+    private static final String PRINT_STRINGS = "for sayak i in range(1 to " + ITERATIONS + "){dekho(\"value: \" + i);}";
+    private static final String PRINT_ARRAYS = "for sayak i in range(1 to " + ITERATIONS + "){dekho([i, 2.5, \"x\"]);}";
+
+    @Param({"vm", "tree"})
+    public String mode;
+
+    @Param({"discard", "buffered"})
+    public String sink;
+
+    private SayakScriptInterpreter interpreter;
+
+    @Setup
+    public void setup() {
+        interpreter = BenchmarkSupport.interpreter(mode, sink);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(ITERATIONS)
+    public void ints() {
+        interpreter.execute(PRINT_INTS);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(ITERATIONS)
+    public void floats() {
+        interpreter.execute(PRINT_FLOATS);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(ITERATIONS)
+    public void strings() {
+        interpreter.execute(PRINT_STRINGS);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(ITERATIONS)
+    public void arrays() {
+        interpreter.execute(PRINT_ARRAYS);
+    }
+}
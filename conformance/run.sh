@@ -0,0 +1,45 @@
+#!/bin/sh
+# Runs every script here in each execution mode and compares the output (stdout and stderr) with
+# the expected .out file, which was recorded with --mode=tree. A script's .in file, if any, is its
+# input for bolo. Each script also runs twice with --precompiled, once saving its .sayakc file
+# and once loading it. A script's .args file, if any, holds extra options for every run of it.
+# Timings in resource limit errors vary from run to run, so "12.345 ms" is compared as "T ms", and
+# the step count of a time limit error as "N steps". A .repl file is typed at the prompt instead: it is the interpreter's stdin,
+# so it has no .in file and is not precompiled. Build first with "mvn package"; set SAYAK to run
+# some other build.
+cd "$(dirname "$0")" || exit 1
+SAYAK=${SAYAK:-"java -jar ../interpreter/target/sayakscript-5.7-SNAPSHOT.jar"}
+failed=0
+
+# check NAME OPTIONS COMMAND...: runs COMMAND and compares its output with NAME.out
+check() {
+    name=$1
+    options=$2
+    shift 2
+    if ! "$@" 2>&1 | sed -e 's/[0-9][0-9]*\.[0-9][0-9]* ms/T ms/g' -e '/ran out of time/s/after [0-9][0-9]* steps/after N steps/' \
+            | diff -u "$name.out" - > /dev/null; then
+        echo "FAIL $name ($options)"
+        failed=1
+    fi
+}
+
+for script in *.sayak; do
+    name=${script%.sayak}
+    input=/dev/null
+    [ -f "$name.in" ] && input=$name.in
+    args=
+    [ -f "$name.args" ] && args=$(cat "$name.args")
+    rm -f "${script}c"
+    for options in --mode=tree --mode=vm --mode=aot --precompiled --precompiled; do
+        check "$name" "$options" sh -c "$SAYAK $options $args $script < $input"
+    done
+    rm -f "${script}c"
+done
+for script in *.repl; do
+    name=${script%.repl}
+    for options in --mode=tree --mode=vm --mode=aot; do
+        check "$name" "$options" sh -c "$SAYAK $options < $script"
+    done
+done
+[ $failed = 0 ] && echo "All conformance scripts passed"
+exit $failed
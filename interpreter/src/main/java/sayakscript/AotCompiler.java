@@ -0,0 +1,427 @@
+package sayakscript;
+
+import java.util.Arrays;
+import java.util.IdentityHashMap;
+import java.util.Map;
+
+// Translates the statements of a Program into static methods of one JVM class, one method per
+// top-level statement: variables become JVM locals, ForNode a counted loop and int/float
+// arithmetic the matching primitive instructions. It only compiles what it can type statically,
+// so the generated code never needs a tag check and can never fail; a statement that reads a
+// variable of unknown type, or uses arrays, bolo, cls or prange, gets no method and stays with
+// the interpreter (see CompiledScript).
+//
+// Types are inferred by running the whole script over abstract slot states, starting from the
+// empty frame a fresh session has: each slot is undefined, an int, a float, a string, or unknown
+// (which covers "maybe undefined" and arrays). Statements that are not compiled still go through
+// the analysis, so the variables they leave behind stay typed for the statements after them.
+final class AotCompiler {
+    static final String METHOD_DESCRIPTOR = "([Ljava/lang/Object;[JLsayakscript/OutputSink;)V";
+
+    private static final int UNDEFINED = 0, INT = 1, FLOAT = 2, STRING = 3, UNKNOWN = 4;
+
+    private static final int ICONST_0 = 0x03, ICONST_1 = 0x04, FCONST_0 = 0x0b, ACONST_NULL = 0x01;
+    private static final int ILOAD = 0x15, FLOAD = 0x17, ALOAD = 0x19, ISTORE = 0x36, FSTORE = 0x38, ASTORE = 0x3a;
+    private static final int LALOAD = 0x2f, AALOAD = 0x32, LASTORE = 0x50, AASTORE = 0x53;
+    private static final int IADD = 0x60, FADD = 0x62, IMUL = 0x68, FMUL = 0x6a;
+    private static final int I2L = 0x85, I2F = 0x86, L2I = 0x88, FCMPL = 0x95, FCMPG = 0x96;
+    private static final int IFEQ = 0x99, IFNE = 0x9a, IFLT = 0x9b, IFGE = 0x9c, IFGT = 0x9d, IFLE = 0x9e;
+    private static final int IF_ICMPLE = 0xa4, GOTO = 0xa7, RETURN = 0xb1;
+    private static final int GETSTATIC = 0xb2, INVOKEVIRTUAL = 0xb6, INVOKESTATIC = 0xb8;
+
+    private final ClassFile classFile;
+    private final int slotCount;
+    private final Map<ExprNode, Integer> types = new IdentityHashMap<>(); // the type each expression had on its last analysis
+    private int compiledCount;
+
+    // Per statement: whether it can be compiled, and for each slot it touches the JVM type of its
+    // local (0 if untouched) and whether it is assigned.
+    private boolean compilable;
+    private int[] localType;
+    private boolean[] written;
+
+    private AotCompiler(Program program, String className) {
+        this.classFile = new ClassFile(className);
+        this.slotCount = program.resolver.slotCount();
+    }
+
+    // Returns the class file, or null if no statement could be compiled. Statement i is compiled
+    // to the method "s" + i.
+    static byte[] compile(Program program, String className) {
+        AotCompiler compiler = new AotCompiler(program, className);
+        int[] env = new int[compiler.slotCount];
+        ASTNode[] statements = program.statements;
+        for (int i = 0; i < statements.length; i++) {
+            int[] entry = env.clone();
+            compiler.compilable = true;
+            compiler.localType = new int[compiler.slotCount];
+            compiler.written = new boolean[compiler.slotCount];
+            compiler.statement(statements[i], env);
+            if (compiler.compilable) {
+                try {
+                    compiler.method("s" + i, statements[i], entry, env);
+                    compiler.compiledCount++;
+                } catch (ClassFile.TooLarge e) {
+                    // left to the interpreter
+                }
+            }
+        }
+        return compiler.compiledCount == 0 ? null : compiler.classFile.toByteArray();
+    }
+
+    // ---- analysis ----
+
+    private void statement(ASTNode node, int[] env) {
+        if (node instanceof AssignNode) {
+            AssignNode assign = (AssignNode) node;
+            assign(assign.slot, expression(assign.expr, env), env);
+        } else if (node instanceof PrintNode) {
+            expression(((PrintNode) node).expr, env);
+        } else if (node instanceof InputNode) {
+            compilable = false;
+            env[((InputNode) node).slot] = UNKNOWN;
+        } else if (node instanceof IfNode) {
+            IfNode ifNode = (IfNode) node;
+            int type = expression(ifNode.condition, env);
+            if (type != INT && type != FLOAT) compilable = false;
+            int[] elseEnv = env.clone();
+            block(ifNode.thenBlock, env);
+            block(ifNode.elseBlock, elseEnv);
+            merge(env, elseEnv);
+        } else if (node instanceof ForNode) {
+            ForNode forNode = (ForNode) node;
+            if (forNode instanceof ParallelForNode) compilable = false;
+            if (forNode.start > forNode.end) return;
+            // The body runs at least once and starts either from the state before the loop or from
+            // the state the previous iteration left, so iterate to a fixed point over both.
+            int[] before = env.clone();
+            while (true) {
+                int[] in = env.clone();
+                assign(forNode.slot, INT, env);
+                block(forNode.body, env);
+                int[] next = env.clone();
+                merge(next, before);
+                if (Arrays.equals(next, in)) break;
+                System.arraycopy(next, 0, env, 0, env.length);
+            }
+        } else if (node instanceof ClearNode) {
+            compilable = false;
+        }
+    }
+
+    private void block(ASTNode[] stmts, int[] env) {
+        for (ASTNode stmt : stmts) statement(stmt, env);
+    }
+
+    private void assign(int slot, int type, int[] env) {
+        env[slot] = type;
+        if (type == UNKNOWN) {
+            compilable = false;
+            return;
+        }
+        written[slot] = true;
+        use(slot, type);
+    }
+
+    private void use(int slot, int type) {
+        if (localType[slot] != 0 && localType[slot] != type) compilable = false;
+        localType[slot] = type;
+    }
+
+    private static void merge(int[] env, int[] other) {
+        for (int i = 0; i < env.length; i++) {
+            if (env[i] != other[i]) env[i] = UNKNOWN;
+        }
+    }
+
+    // Returns INT, FLOAT, STRING or UNKNOWN; anything that would need a runtime check, or could
+    // raise an error, makes the statement uncompilable.
+    private int expression(ExprNode expr, int[] env) {
+        int type;
+        if (expr instanceof NumberNode) {
+            type = ((NumberNode) expr).tag == Values.INT ? INT : FLOAT;
+        } else if (expr instanceof StringNode) {
+            // the constant pool holds at most 65535 bytes of modified UTF-8 per string
+            type = ((StringNode) expr).value.length() <= 0xFFFF / 3 ? STRING : UNKNOWN;
+        } else if (expr instanceof VarNode) {
+            int slot = ((VarNode) expr).slot;
+            type = env[slot] == UNDEFINED ? UNKNOWN : env[slot];
+            if (type != UNKNOWN) use(slot, type);
+        } else if (expr instanceof HoistedNode) {
+            type = expression(((HoistedNode) expr).expr, env);
+        } else if (expr instanceof BinaryOpNode) {
+            BinaryOpNode binOp = (BinaryOpNode) expr;
+            int left = expression(binOp.left, env), right = expression(binOp.right, env);
+            if (left == UNKNOWN || right == UNKNOWN) {
+                type = UNKNOWN;
+            } else if (binOp.op == BinaryOpNode.ADD) {
+                type = left == STRING || right == STRING ? STRING : left == INT && right == INT ? INT : FLOAT;
+            } else if (left == STRING || right == STRING) {
+                type = UNKNOWN;
+            } else if (binOp.op == BinaryOpNode.MUL) {
+                type = left == INT && right == INT ? INT : FLOAT;
+            } else {
+                type = INT;
+            }
+        } else {
+            type = UNKNOWN;
+        }
+        if (type == UNKNOWN) compilable = false;
+        types.put(expr, type);
+        return type;
+    }
+
+    // ---- code generation ----
+
+    private ClassFile.Code code;
+    private int[] local; // JVM local for each slot
+    private int[] flag; // local holding "assigned yet" for slots that are not definitely assigned, else 0
+    private int nextLocal;
+
+    private void method(String name, ASTNode stmt, int[] entry, int[] exit) {
+        code = classFile.new Code(name, METHOD_DESCRIPTOR, 3);
+        local = new int[slotCount];
+        flag = new int[slotCount];
+        nextLocal = 3;
+        for (int slot = 0; slot < slotCount; slot++) {
+            int type = localType[slot];
+            if (type == 0) continue;
+            local[slot] = nextLocal++;
+            if (entry[slot] == type) {
+                load(slot, type);
+            } else {
+                zero(type);
+                store(local[slot], type);
+                if (exit[slot] != type) {
+                    flag[slot] = nextLocal++;
+                    code.op(ICONST_0);
+                    code.stack(1);
+                    store(flag[slot], INT);
+                }
+            }
+        }
+        statementCode(stmt);
+        for (int slot = 0; slot < slotCount; slot++) {
+            if (written[slot]) writeBack(slot, localType[slot]);
+        }
+        code.op(RETURN);
+        code.finish();
+    }
+
+    private void load(int slot, int type) {
+        if (type == STRING) {
+            code.var(ALOAD, 0);
+            code.stack(1);
+            code.pushInt(slot);
+            code.op(AALOAD); // a String or a ConcatString, so it stays an Object
+            code.stack(-1);
+        } else {
+            code.var(ALOAD, 1);
+            code.stack(1);
+            code.pushInt(slot);
+            code.op(LALOAD); // the long takes two stack words, so the depth stays the same
+            code.op(L2I);
+            code.stack(-1);
+            if (type == FLOAT) invokeStatic("java/lang/Float", "intBitsToFloat", "(I)F", 0);
+        }
+        store(local[slot], type);
+    }
+
+    private void writeBack(int slot, int type) {
+        int skip = code.newLabel();
+        if (flag[slot] != 0) {
+            code.var(ILOAD, flag[slot]);
+            code.stack(1);
+            code.jump(IFEQ, skip);
+            code.stack(-1);
+        }
+        code.var(ALOAD, 0);
+        code.stack(1);
+        code.pushInt(slot);
+        if (type == STRING) {
+            code.var(ALOAD, local[slot]);
+            code.stack(1);
+        } else {
+            code.op(GETSTATIC, classFile.field("sayakscript/Values", type == INT ? "INT" : "FLOAT", "Ljava/lang/Object;"));
+            code.stack(1);
+        }
+        code.op(AASTORE);
+        code.stack(-3);
+        if (type != STRING) {
+            code.var(ALOAD, 1);
+            code.stack(1);
+            code.pushInt(slot);
+            code.var(type == INT ? ILOAD : FLOAD, local[slot]);
+            code.stack(1);
+            if (type == FLOAT) invokeStatic("java/lang/Float", "floatToRawIntBits", "(F)I", 0);
+            code.op(I2L);
+            code.stack(1);
+            code.op(LASTORE);
+            code.stack(-4);
+        }
+        code.bind(skip);
+    }
+
+    private void statementCode(ASTNode node) {
+        if (node instanceof AssignNode) {
+            AssignNode assign = (AssignNode) node;
+            expressionCode(assign.expr);
+            assigned(assign.slot);
+        } else if (node instanceof PrintNode) {
+            code.var(ALOAD, 2);
+            code.stack(1);
+            ExprNode expr = ((PrintNode) node).expr;
+            stringCode(expr);
+            if (types.get(expr) == STRING) invokeStatic("java/lang/String", "valueOf", "(Ljava/lang/Object;)Ljava/lang/String;", 0);
+            code.op(INVOKEVIRTUAL, classFile.method("sayakscript/OutputSink", "println", "(Ljava/lang/String;)V"));
+            code.stack(-2);
+        } else if (node instanceof IfNode) {
+            IfNode ifNode = (IfNode) node;
+            int toElse = code.newLabel(), toEnd = code.newLabel();
+            truthCode(ifNode.condition, toElse);
+            blockCode(ifNode.thenBlock);
+            code.jump(GOTO, toEnd);
+            code.bind(toElse);
+            blockCode(ifNode.elseBlock);
+            code.bind(toEnd);
+        } else if (node instanceof ForNode) {
+            ForNode forNode = (ForNode) node;
+            if (forNode.start > forNode.end) return;
+            int counter = nextLocal++;
+            int top = code.newLabel();
+            code.pushInt(forNode.start);
+            store(counter, INT);
+            code.bind(top);
+            code.var(ILOAD, counter);
+            code.stack(1);
+            assigned(forNode.slot);
+            blockCode(forNode.body);
+            code.var(ILOAD, counter);
+            code.stack(1);
+            code.op(ICONST_1);
+            code.stack(1);
+            code.op(IADD);
+            code.stack(-1);
+            code.op(0x59); // dup
+            code.stack(1);
+            store(counter, INT);
+            code.pushInt(forNode.end);
+            code.jump(IF_ICMPLE, top);
+            code.stack(-2);
+        }
+    }
+
+    private void blockCode(ASTNode[] stmts) {
+        for (ASTNode stmt : stmts) statementCode(stmt);
+    }
+
+    // Stores the value on the stack into slot's local and records that it has been assigned.
+    private void assigned(int slot) {
+        store(local[slot], localType[slot]);
+        if (flag[slot] != 0) {
+            code.op(ICONST_1);
+            code.stack(1);
+            store(flag[slot], INT);
+        }
+    }
+
+    private void expressionCode(ExprNode expr) {
+        int type = types.get(expr);
+        if (expr instanceof NumberNode) {
+            NumberNode number = (NumberNode) expr;
+            if (type == INT) code.pushInt((int) number.bits);
+            else code.pushFloat(Float.intBitsToFloat((int) number.bits));
+        } else if (expr instanceof StringNode) {
+            code.pushString(((StringNode) expr).value);
+        } else if (expr instanceof VarNode) {
+            int slot = ((VarNode) expr).slot;
+            code.var(type == INT ? ILOAD : type == FLOAT ? FLOAD : ALOAD, local[slot]);
+            code.stack(1);
+        } else if (expr instanceof HoistedNode) {
+            // the inner expression is pure and cheap once compiled, so it is simply recomputed
+            expressionCode(((HoistedNode) expr).expr);
+        } else {
+            BinaryOpNode binOp = (BinaryOpNode) expr;
+            int left = types.get(binOp.left), right = types.get(binOp.right);
+            if (type == STRING) {
+                stringCode(binOp.left);
+                stringCode(binOp.right);
+                invokeStatic("sayakscript/ConcatString", "concat", "(Ljava/lang/Object;Ljava/lang/Object;)Ljava/lang/Object;", -1);
+            } else if (binOp.op == BinaryOpNode.ADD || binOp.op == BinaryOpNode.MUL) {
+                boolean ints = type == INT;
+                numberCode(binOp.left, left, ints);
+                numberCode(binOp.right, right, ints);
+                if (binOp.op == BinaryOpNode.ADD) code.op(ints ? IADD : FADD);
+                else code.op(ints ? IMUL : FMUL);
+                code.stack(-1);
+            } else {
+                // like the interpreter, every comparison is done on floats
+                int isFalse = code.newLabel(), end = code.newLabel();
+                numberCode(binOp.left, left, false);
+                numberCode(binOp.right, right, false);
+                switch (binOp.op) {
+                    case BinaryOpNode.GT: compare(FCMPL, IFLE, isFalse); break;
+                    case BinaryOpNode.LT: compare(FCMPG, IFGE, isFalse); break;
+                    case BinaryOpNode.GE: compare(FCMPL, IFLT, isFalse); break;
+                    case BinaryOpNode.LE: compare(FCMPG, IFGT, isFalse); break;
+                    default: compare(FCMPL, IFNE, isFalse); break;
+                }
+                code.op(ICONST_1);
+                code.jump(GOTO, end);
+                code.bind(isFalse);
+                code.op(ICONST_0);
+                code.stack(1);
+                code.bind(end);
+            }
+        }
+    }
+
+    // NaN makes fcmpl push -1 and fcmpg push 1, and each comparison picks the one that fails.
+    private void compare(int fcmp, int jumpIfFalse, int isFalse) {
+        code.op(fcmp);
+        code.stack(-1);
+        code.jump(jumpIfFalse, isFalse);
+        code.stack(-1);
+    }
+
+    private void numberCode(ExprNode expr, int type, boolean ints) {
+        expressionCode(expr);
+        if (!ints && type == INT) code.op(I2F);
+    }
+
+    // Leaves the operand's text on the stack: a String, or for a string value possibly a ConcatString.
+    private void stringCode(ExprNode expr) {
+        expressionCode(expr);
+        int type = types.get(expr);
+        if (type == INT) invokeStatic("java/lang/Integer", "toString", "(I)Ljava/lang/String;", 0);
+        else if (type == FLOAT) invokeStatic("java/lang/Float", "toString", "(F)Ljava/lang/String;", 0);
+    }
+
+    // Jumps to isFalse unless the numeric condition is non-zero.
+    private void truthCode(ExprNode condition, int isFalse) {
+        expressionCode(condition);
+        if (types.get(condition) == FLOAT) {
+            code.op(FCONST_0);
+            code.stack(1);
+            code.op(FCMPL);
+            code.stack(-1);
+        }
+        code.jump(IFEQ, isFalse);
+        code.stack(-1);
+    }
+
+    private void invokeStatic(String owner, String name, String descriptor, int stackDelta) {
+        code.op(INVOKESTATIC, classFile.method(owner, name, descriptor));
+        code.stack(stackDelta);
+    }
+
+    private void zero(int type) {
+        code.op(type == INT ? ICONST_0 : type == FLOAT ? FCONST_0 : ACONST_NULL);
+        code.stack(1);
+    }
+
+    private void store(int index, int type) {
+        code.var(type == INT ? ISTORE : type == FLOAT ? FSTORE : ASTORE, index);
+        code.stack(-1);
+    }
+}
@@ -0,0 +1,111 @@
+package sayakscript;
+
+// An array literal's value. Arrays are never modified after they are built, so the storage is
+// picked once: a plain int[] or float[] when every element is an int or every element is a float,
+// and boxed objects only for mixed contents (strings, nested arrays, ints alongside floats).
+// toString matches the list format arrays have always printed with, e.g. [1, 2.5, hi].
+abstract class ArrayValue {
+    abstract int length();
+
+    abstract void appendElement(StringBuilder sb, int i);
+
+    // The number of values the array holds, counting the elements of nested arrays (see Governor).
+    int valueCount() {
+        return length();
+    }
+
+    // Builds an array from the tagged values tags[from, to) / bits[from, to).
+    static ArrayValue of(Object[] tags, long[] bits, int from, int to) {
+        int n = to - from;
+        boolean ints = true, floats = true;
+        for (int i = from; i < to; i++) {
+            ints &= tags[i] == Values.INT;
+            floats &= tags[i] == Values.FLOAT;
+        }
+        if (ints) {
+            int[] values = new int[n];
+            for (int i = 0; i < n; i++) values[i] = (int) bits[from + i];
+            return new IntArray(values);
+        }
+        if (floats) {
+            float[] values = new float[n];
+            for (int i = 0; i < n; i++) values[i] = Float.intBitsToFloat((int) bits[from + i]);
+            return new FloatArray(values);
+        }
+        Object[] values = new Object[n];
+        for (int i = 0; i < n; i++) values[i] = Values.box(tags[from + i], bits[from + i]);
+        return new ObjectArray(values);
+    }
+
+    @Override
+    public String toString() {
+        int n = length();
+        StringBuilder sb = new StringBuilder(2 + n * 4);
+        sb.append('[');
+        for (int i = 0; i < n; i++) {
+            if (i > 0) sb.append(", ");
+            appendElement(sb, i);
+        }
+        return sb.append(']').toString();
+    }
+
+    private static final class IntArray extends ArrayValue {
+        private final int[] values;
+
+        IntArray(int[] values) {
+            this.values = values;
+        }
+
+        int length() {
+            return values.length;
+        }
+
+        void appendElement(StringBuilder sb, int i) {
+            sb.append(values[i]);
+        }
+    }
+
+    private static final class FloatArray extends ArrayValue {
+        private final float[] values;
+
+        FloatArray(float[] values) {
+            this.values = values;
+        }
+
+        int length() {
+            return values.length;
+        }
+
+        void appendElement(StringBuilder sb, int i) {
+            sb.append(values[i]);
+        }
+    }
+
+    private static final class ObjectArray extends ArrayValue {
+        private final Object[] values;
+        private int valueCount = -1;
+
+        ObjectArray(Object[] values) {
+            this.values = values;
+        }
+
+        int length() {
+            return values.length;
+        }
+
+        @Override
+        int valueCount() {
+            int n = valueCount;
+            if (n < 0) {
+                n = 0;
+                for (Object value : values) n += value instanceof ArrayValue ? ((ArrayValue) value).valueCount() : 1;
+                valueCount = n;
+            }
+            return n;
+        }
+
+        void appendElement(StringBuilder sb, int i) {
+            sb.append(values[i]);
+        }
+    }
+}
@@ -0,0 +1,173 @@
+package sayakscript;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.NoSuchElementException;
+
+// Reads bolo input without Scanner. For --batch-input, stdin comes through one large buffer a line
+// at a time; for 'bolo x in "file";', the whole file is memory-mapped and split on commas,
+// semicolons and whitespace into an array. Either way, ints and plain decimal floats are parsed
+// straight from the bytes, and a String is only built for a value that stays a string, or for a
+// float too long for the exact fast path. The result is what parseInput would make of the text.
+final class BulkInput {
+    private static final int BUFFER_SIZE = 1 << 16;
+    private static final int MAX_EXACT_MANTISSA = 1 << 24; // ints up to here are exact floats
+    private static final float[] POWERS_OF_TEN = {1e0f, 1e1f, 1e2f, 1e3f, 1e4f, 1e5f, 1e6f, 1e7f, 1e8f, 1e9f, 1e10f};
+
+    private final ReadableByteChannel in;
+    private final Charset charset;
+    private ByteBuffer buf = ByteBuffer.allocate(BUFFER_SIZE);
+    private boolean eof;
+
+    // The tag of the value last parsed is returned; its payload is left here (see Values).
+    private long bits;
+
+    BulkInput(InputStream in) {
+        this.in = Channels.newChannel(in);
+        this.charset = Charset.defaultCharset(); // what Scanner(System.in) would decode with
+        buf.flip();
+    }
+
+    private BulkInput(Charset charset) {
+        this.in = null;
+        this.charset = charset;
+    }
+
+    // The next line's value, as readInput returns it. Lines end at \n, \r\n or \r, like nextLine.
+    Object next() {
+        int p = buf.position();
+        while (true) {
+            for (; p < buf.limit(); p++) {
+                byte b = buf.get(p);
+                if (b == '\n' || b == '\r') {
+                    if (b == '\r' && p + 1 == buf.limit() && !eof) break; // a \n may follow in the next read
+                    Object tag = parse(buf, buf.position(), p);
+                    int next = p + 1;
+                    if (b == '\r' && next < buf.limit() && buf.get(next) == '\n') next++;
+                    buf.position(next);
+                    return Values.box(tag, bits);
+                }
+            }
+            if (eof) {
+                if (buf.position() == buf.limit()) throw new NoSuchElementException("No line found");
+                Object tag = parse(buf, buf.position(), buf.limit());
+                buf.position(buf.limit());
+                return Values.box(tag, bits);
+            }
+            p -= buf.position();
+            fill();
+        }
+    }
+
+    private void fill() {
+        buf.compact();
+        if (!buf.hasRemaining()) buf = ByteBuffer.allocate(buf.capacity() * 2).put(buf.flip());
+        try {
+            if (in.read(buf) < 0) eof = true;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        buf.flip();
+    }
+
+    // Reads a whole delimited file into an array: an int or float array when every field is one.
+    static ArrayValue array(Path path) {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            long size = channel.size();
+            if (size > Integer.MAX_VALUE) throw new RuntimeException("File too large for bolo: " + path);
+            ByteBuffer bytes = channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+            BulkInput parser = new BulkInput(StandardCharsets.UTF_8);
+            Object[] tags = new Object[1024];
+            long[] bits = new long[1024];
+            int n = 0;
+            int end = (int) size;
+            for (int p = 0; p < end; ) {
+                while (p < end && isDelimiter(bytes.get(p))) p++;
+                if (p == end) break;
+                int s = p;
+                while (p < end && !isDelimiter(bytes.get(p))) p++;
+                if (n == tags.length) {
+                    tags = Arrays.copyOf(tags, n * 2);
+                    bits = Arrays.copyOf(bits, n * 2);
+                }
+                tags[n] = parser.parse(bytes, s, p);
+                bits[n++] = parser.bits;
+            }
+            return ArrayValue.of(tags, bits, 0, n);
+        } catch (IOException e) {
+            throw new RuntimeException("Cannot read file for bolo: " + path + " (" + e.getClass().getSimpleName() + ")");
+        }
+    }
+
+    private static boolean isDelimiter(byte b) {
+        return b == ',' || b == ';' || b == ' ' || b == '\t' || b == '\n' || b == '\r';
+    }
+
+    // Parses bytes [s, e) as parseInput would parse them as a String.
+    private Object parse(ByteBuffer b, int s, int e) {
+        boolean dot = false;
+        for (int p = s; p < e; p++) {
+            byte c = b.get(p);
+            if (c < 0) return slow(b, s, e); // non-ASCII: Integer.parseInt also accepts other scripts' digits
+            if (c == '.') dot = true;
+        }
+        int p = s;
+        boolean negative = p < e && b.get(p) == '-';
+        if (p < e && (negative || b.get(p) == '+')) p++;
+        if (!dot) {
+            if (p == e) return string(b, s, e);
+            long value = 0;
+            for (; p < e; p++) {
+                int digit = b.get(p) - '0';
+                if (digit < 0 || digit > 9) return string(b, s, e);
+                value = value * 10 + digit;
+                if (value > -(long) Integer.MIN_VALUE) return string(b, s, e);
+            }
+            if (!negative && value > Integer.MAX_VALUE) return string(b, s, e);
+            bits = (int) (negative ? -value : value);
+            return Values.INT;
+        }
+        // [+-]digits.digits, either side possibly empty: one correctly rounded division when the
+        // digits and the power of ten are both exact floats, as in Float.parseFloat
+        int mantissa = 0, digits = 0, fraction = -1;
+        for (; p < e; p++) {
+            byte c = b.get(p);
+            if (c == '.') {
+                if (fraction >= 0) return slow(b, s, e);
+                fraction = 0;
+                continue;
+            }
+            if (c < '0' || c > '9') return slow(b, s, e);
+            mantissa = mantissa * 10 + (c - '0');
+            digits++;
+            if (fraction >= 0) fraction++;
+            if (mantissa > MAX_EXACT_MANTISSA || fraction >= POWERS_OF_TEN.length) return slow(b, s, e);
+        }
+        if (digits == 0) return string(b, s, e);
+        float value = mantissa / POWERS_OF_TEN[fraction];
+        bits = Values.floatBits(negative ? -value : value);
+        return Values.FLOAT;
+    }
+
+    private Object slow(ByteBuffer b, int s, int e) {
+        Object value = SayakScriptInterpreter.parseInput(string(b, s, e));
+        bits = Values.bits(value);
+        return Values.tag(value);
+    }
+
+    private String string(ByteBuffer b, int s, int e) {
+        byte[] text = new byte[e - s];
+        b.get(s, text);
+        return new String(text, charset);
+    }
+}
@@ -0,0 +1,44 @@
+package sayakscript;
+
+// A compiled statement: a dense opcode array plus its constant pool.
+final class Bytecode {
+    static final int CONST = 0;       // CONST k          push constants[k]
+    static final int LOAD = 1;        // LOAD s           push frame slot s
+    static final int STORE = 2;       // STORE s          pop into frame slot s
+    static final int ADD = 3;
+    static final int MUL = 4;
+    static final int GT = 5;
+    static final int LT = 6;
+    static final int GE = 7;
+    static final int LE = 8;
+    static final int EQ = 9;
+    static final int ARRAY = 10;      // ARRAY count      pop count values into an ArrayValue
+    static final int PRINT = 11;
+    static final int INPUT = 12;      // INPUT s          read a value into frame slot s
+    static final int JUMP = 13;       // JUMP target
+    static final int JUMP_FALSE = 14; // JUMP_FALSE target  pop a condition, jump when it is 0
+    static final int FOR_PREP = 15;   // FOR_PREP r start end exit   r = start, skip the loop when start > end
+    static final int FOR_VAR = 16;    // FOR_VAR r s      store register r into frame slot s
+    static final int FOR_NEXT = 17;   // FOR_NEXT r end body   ++r, jump back to body while r <= end
+    static final int CLEAR = 18;
+    static final int HALT = 19;
+    static final int CACHED = 20;     // CACHED s end     push frame slot s and jump to end if it is set
+    static final int CACHE = 21;      // CACHE s          copy the top of the stack into frame slot s
+    static final int UNSET = 22;      // UNSET s          clear frame slot s
+    static final int PARALLEL = 23;   // PARALLEL k       run the prange loop constants[k] on the fork-join pool
+    static final int READ = 24;       // READ s k         read the file named constants[k] into frame slot s as an array
+
+    final int[] code;
+    final Object[] constants;    // tags, see Values
+    final long[] constantBits;
+    final int maxStack;
+    final int registers;
+
+    Bytecode(int[] code, Object[] constants, long[] constantBits, int maxStack, int registers) {
+        this.code = code;
+        this.constants = constants;
+        this.constantBits = constantBits;
+        this.maxStack = maxStack;
+        this.registers = registers;
+    }
+}
@@ -0,0 +1,163 @@
+package sayakscript;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+// Lowers one parsed, resolved statement to a Bytecode unit for BytecodeVM.
+final class BytecodeCompiler {
+    private int[] code = new int[32];
+    private int length;
+    private final ArrayList<Object> constants = new ArrayList<>();
+    private final Map<Object, Integer> constantIndex = new HashMap<>();
+    private int depth, maxDepth;
+    private int loopDepth, registers;
+
+    private BytecodeCompiler() {}
+
+    static Bytecode compile(ASTNode stmt) {
+        BytecodeCompiler compiler = new BytecodeCompiler();
+        compiler.statement(stmt);
+        compiler.emit(Bytecode.HALT);
+        int count = compiler.constants.size();
+        Object[] tags = new Object[count];
+        long[] bits = new long[count];
+        for (int i = 0; i < count; i++) {
+            tags[i] = Values.tag(compiler.constants.get(i));
+            bits[i] = Values.bits(compiler.constants.get(i));
+        }
+        return new Bytecode(Arrays.copyOf(compiler.code, compiler.length), tags, bits, compiler.maxDepth, compiler.registers);
+    }
+
+    private void statement(ASTNode node) {
+        if (node instanceof AssignNode) {
+            AssignNode assign = (AssignNode) node;
+            expression(assign.expr);
+            emit(Bytecode.STORE, assign.slot);
+            stack(-1);
+        } else if (node instanceof PrintNode) {
+            expression(((PrintNode) node).expr);
+            emit(Bytecode.PRINT);
+            stack(-1);
+        } else if (node instanceof InputNode) {
+            InputNode input = (InputNode) node;
+            if (input.file != null) emit(Bytecode.READ, input.slot, constant(input.file));
+            else emit(Bytecode.INPUT, input.slot);
+        } else if (node instanceof IfNode) {
+            IfNode ifNode = (IfNode) node;
+            expression(ifNode.condition);
+            int toElse = emitJump(Bytecode.JUMP_FALSE);
+            stack(-1);
+            block(ifNode.thenBlock);
+            if (ifNode.elseBlock.length == 0) {
+                patch(toElse);
+            } else {
+                int toEnd = emitJump(Bytecode.JUMP);
+                patch(toElse);
+                block(ifNode.elseBlock);
+                patch(toEnd);
+            }
+        } else if (node instanceof ParallelForNode && ParallelLoop.independent((ParallelForNode) node)) {
+            emit(Bytecode.PARALLEL, constant(node));
+        } else if (node instanceof ForNode) {
+            ForNode forNode = (ForNode) node;
+            for (HoistedNode hoisted : forNode.hoisted) emit(Bytecode.UNSET, hoisted.slot);
+            int register = loopDepth++;
+            registers = Math.max(registers, loopDepth);
+            emit(Bytecode.FOR_PREP, register, forNode.start, forNode.end, 0);
+            int toExit = length - 1;
+            int body = length;
+            emit(Bytecode.FOR_VAR, register, forNode.slot);
+            block(forNode.body);
+            emit(Bytecode.FOR_NEXT, register, forNode.end, body);
+            patch(toExit);
+            loopDepth--;
+        } else if (node instanceof ClearNode) {
+            emit(Bytecode.CLEAR);
+        }
+    }
+
+    private void block(ASTNode[] stmts) {
+        for (ASTNode stmt : stmts) statement(stmt);
+    }
+
+    private void expression(ExprNode expr) {
+        if (expr instanceof NumberNode) {
+            emit(Bytecode.CONST, constant(((NumberNode) expr).value));
+            stack(1);
+        } else if (expr instanceof StringNode) {
+            emit(Bytecode.CONST, constant(((StringNode) expr).value));
+            stack(1);
+        } else if (expr instanceof VarNode) {
+            emit(Bytecode.LOAD, ((VarNode) expr).slot);
+            stack(1);
+        } else if (expr instanceof ArrayNode && ((ArrayNode) expr).constant != null) {
+            emit(Bytecode.CONST, constant(((ArrayNode) expr).constant));
+            stack(1);
+        } else if (expr instanceof ArrayNode) {
+            ArrayList<ExprNode> elements = ((ArrayNode) expr).elements;
+            for (ExprNode element : elements) expression(element);
+            emit(Bytecode.ARRAY, elements.size());
+            stack(1 - elements.size());
+        } else if (expr instanceof BinaryOpNode) {
+            BinaryOpNode binOp = (BinaryOpNode) expr;
+            expression(binOp.left);
+            expression(binOp.right);
+            emit(opcode(binOp.operator));
+            stack(-1);
+        } else if (expr instanceof HoistedNode) {
+            HoistedNode hoisted = (HoistedNode) expr;
+            emit(Bytecode.CACHED, hoisted.slot, 0);
+            int toEnd = length - 1;
+            expression(hoisted.expr);
+            emit(Bytecode.CACHE, hoisted.slot);
+            patch(toEnd);
+        } else {
+            throw new RuntimeException("Expression cannot be evaluated");
+        }
+    }
+
+    private static int opcode(String operator) {
+        switch (operator) {
+            case "+": return Bytecode.ADD;
+            case "*": return Bytecode.MUL;
+            case ">": return Bytecode.GT;
+            case "<": return Bytecode.LT;
+            case ">=": return Bytecode.GE;
+            case "<=": return Bytecode.LE;
+            case "==": return Bytecode.EQ;
+            default: throw new RuntimeException("Unknown operator: " + operator);
+        }
+    }
+
+    private int constant(Object value) {
+        Integer index = constantIndex.get(value);
+        if (index == null) {
+            index = constants.size();
+            constants.add(value);
+            constantIndex.put(value, index);
+        }
+        return index;
+    }
+
+    private void stack(int delta) {
+        depth += delta;
+        maxDepth = Math.max(maxDepth, depth);
+    }
+
+    // Emits a forward jump and returns the position of its target operand for patch().
+    private int emitJump(int opcode) {
+        emit(opcode, 0);
+        return length - 1;
+    }
+
+    private void patch(int operand) {
+        code[operand] = length;
+    }
+
+    private void emit(int... words) {
+        if (length + words.length > code.length) code = Arrays.copyOf(code, Math.max(code.length * 2, length + words.length));
+        for (int word : words) code[length++] = word;
+    }
+}
@@ -0,0 +1,205 @@
+package sayakscript;
+
+// Dispatch loop for Bytecode. Loop counters live in registers, everything else on the operand
+// stack, which like the frame holds (tag, bits) pairs so numbers stay unboxed (see Values).
+final class BytecodeVM {
+    private final SayakScriptInterpreter interpreter;
+
+    BytecodeVM(SayakScriptInterpreter interpreter) {
+        this.interpreter = interpreter;
+    }
+
+    void run(Bytecode unit) {
+        int[] code = unit.code;
+        Object[] constants = unit.constants;
+        long[] constantBits = unit.constantBits;
+        Object[] frame = interpreter.frame();
+        long[] frameBits = interpreter.frameBits();
+        Object[] stack = new Object[unit.maxStack];
+        long[] bits = new long[unit.maxStack];
+        int[] registers = new int[unit.registers];
+        Governor governor = interpreter.governor();
+        int sp = 0;
+        int pc = 0;
+        while (true) {
+            switch (code[pc++]) {
+                case Bytecode.CONST: {
+                    int k = code[pc++];
+                    if (governor != null && constants[k] instanceof ArrayValue) governor.array(((ArrayValue) constants[k]).length());
+                    stack[sp] = constants[k];
+                    bits[sp++] = constantBits[k];
+                    break;
+                }
+                case Bytecode.LOAD: {
+                    int slot = code[pc++];
+                    Object tag = frame[slot];
+                    if (tag == null) throw interpreter.undefined(slot);
+                    stack[sp] = tag;
+                    bits[sp++] = frameBits[slot];
+                    break;
+                }
+                case Bytecode.STORE: {
+                    int slot = code[pc++];
+                    if (governor != null) governor.store(frame[slot], stack[sp - 1]);
+                    frame[slot] = stack[--sp];
+                    frameBits[slot] = bits[sp];
+                    stack[sp] = null;
+                    break;
+                }
+                case Bytecode.ADD: {
+                    Object right = stack[--sp], left = stack[sp - 1];
+                    if (left == Values.INT && right == Values.INT) {
+                        bits[sp - 1] = (int) bits[sp - 1] + (int) bits[sp];
+                    } else if (Values.isNumber(left) && Values.isNumber(right)) {
+                        stack[sp - 1] = Values.FLOAT;
+                        bits[sp - 1] = Values.floatBits(Values.toFloat(left, bits[sp - 1]) + Values.toFloat(right, bits[sp]));
+                    } else {
+                        stack[sp - 1] = Values.concat(left, bits[sp - 1], right, bits[sp]);
+                        if (governor != null) governor.string(stack[sp - 1]);
+                    }
+                    stack[sp] = null;
+                    break;
+                }
+                case Bytecode.MUL: {
+                    Object right = stack[--sp], left = stack[sp - 1];
+                    Values.requireMultipliable(left, right);
+                    if (left == Values.INT && right == Values.INT) {
+                        bits[sp - 1] = (int) bits[sp - 1] * (int) bits[sp];
+                    } else {
+                        stack[sp - 1] = Values.FLOAT;
+                        bits[sp - 1] = Values.floatBits(Values.toFloat(left, bits[sp - 1]) * Values.toFloat(right, bits[sp]));
+                    }
+                    break;
+                }
+                case Bytecode.GT: {
+                    Object right = stack[--sp], left = stack[sp - 1];
+                    Values.requireNumbers(left, right);
+                    boolean result = Values.toFloat(left, bits[sp - 1]) > Values.toFloat(right, bits[sp]);
+                    stack[sp - 1] = Values.INT;
+                    bits[sp - 1] = result ? 1 : 0;
+                    break;
+                }
+                case Bytecode.LT: {
+                    Object right = stack[--sp], left = stack[sp - 1];
+                    Values.requireNumbers(left, right);
+                    boolean result = Values.toFloat(left, bits[sp - 1]) < Values.toFloat(right, bits[sp]);
+                    stack[sp - 1] = Values.INT;
+                    bits[sp - 1] = result ? 1 : 0;
+                    break;
+                }
+                case Bytecode.GE: {
+                    Object right = stack[--sp], left = stack[sp - 1];
+                    Values.requireNumbers(left, right);
+                    boolean result = Values.toFloat(left, bits[sp - 1]) >= Values.toFloat(right, bits[sp]);
+                    stack[sp - 1] = Values.INT;
+                    bits[sp - 1] = result ? 1 : 0;
+                    break;
+                }
+                case Bytecode.LE: {
+                    Object right = stack[--sp], left = stack[sp - 1];
+                    Values.requireNumbers(left, right);
+                    boolean result = Values.toFloat(left, bits[sp - 1]) <= Values.toFloat(right, bits[sp]);
+                    stack[sp - 1] = Values.INT;
+                    bits[sp - 1] = result ? 1 : 0;
+                    break;
+                }
+                case Bytecode.EQ: {
+                    Object right = stack[--sp], left = stack[sp - 1];
+                    Values.requireNumbers(left, right);
+                    boolean result = Values.toFloat(left, bits[sp - 1]) == Values.toFloat(right, bits[sp]);
+                    stack[sp - 1] = Values.INT;
+                    bits[sp - 1] = result ? 1 : 0;
+                    break;
+                }
+                case Bytecode.ARRAY: {
+                    int count = code[pc++];
+                    if (governor != null) governor.array(count);
+                    ArrayValue array = ArrayValue.of(stack, bits, sp - count, sp);
+                    for (int i = sp - count; i < sp; i++) stack[i] = null;
+                    sp -= count;
+                    stack[sp++] = array;
+                    break;
+                }
+                case Bytecode.PRINT:
+                    sp--;
+                    interpreter.print(stack[sp], bits[sp]);
+                    stack[sp] = null;
+                    break;
+                case Bytecode.INPUT: {
+                    int slot = code[pc++];
+                    Object value = interpreter.readInput(interpreter.variableName(slot));
+                    if (governor != null) governor.store(frame[slot], Values.tag(value));
+                    frame[slot] = Values.tag(value);
+                    frameBits[slot] = Values.bits(value);
+                    break;
+                }
+                case Bytecode.READ: {
+                    int slot = code[pc++];
+                    ArrayValue array = interpreter.readFile((String) constants[code[pc++]]);
+                    if (governor != null) governor.store(frame[slot], array);
+                    frame[slot] = array;
+                    break;
+                }
+                case Bytecode.JUMP:
+                    pc = code[pc];
+                    break;
+                case Bytecode.JUMP_FALSE:
+                    sp--;
+                    pc = Values.isTrue(stack[sp], bits[sp]) ? pc + 1 : code[pc];
+                    break;
+                case Bytecode.FOR_PREP: {
+                    int start = code[pc + 1];
+                    registers[code[pc]] = start;
+                    pc = start <= code[pc + 2] ? pc + 4 : code[pc + 3];
+                    break;
+                }
+                case Bytecode.FOR_VAR: {
+                    int slot = code[pc + 1];
+                    if (governor != null) {
+                        governor.step(); // once per iteration
+                        governor.store(frame[slot], Values.INT);
+                    }
+                    frame[slot] = Values.INT;
+                    frameBits[slot] = registers[code[pc]];
+                    pc += 2;
+                    break;
+                }
+                case Bytecode.FOR_NEXT:
+                    pc = ++registers[code[pc]] <= code[pc + 1] ? code[pc + 2] : pc + 3;
+                    break;
+                case Bytecode.CLEAR:
+                    interpreter.clearScreen();
+                    break;
+                case Bytecode.PARALLEL:
+                    ParallelLoop.run(interpreter, (ParallelForNode) constants[code[pc++]]);
+                    break;
+                case Bytecode.CACHED: {
+                    int slot = code[pc];
+                    if (frame[slot] == null) {
+                        pc += 2;
+                    } else {
+                        stack[sp] = frame[slot];
+                        bits[sp++] = frameBits[slot];
+                        pc = code[pc + 1];
+                    }
+                    break;
+                }
+                case Bytecode.CACHE: {
+                    int slot = code[pc++];
+                    if (governor != null) governor.store(frame[slot], stack[sp - 1]);
+                    frame[slot] = stack[sp - 1];
+                    frameBits[slot] = bits[sp - 1];
+                    break;
+                }
+                case Bytecode.UNSET:
+                    if (governor != null) governor.store(frame[code[pc]], null);
+                    frame[code[pc++]] = null;
+                    break;
+                case Bytecode.HALT:
+                    return;
+                default:
+                    throw new IllegalStateException("Bad opcode " + code[pc - 1] + " at " + (pc - 1));
+            }
+        }
+    }
+}
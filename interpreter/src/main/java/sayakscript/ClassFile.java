@@ -0,0 +1,269 @@
+package sayakscript;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+// Just enough of a class file writer for AotCompiler: a final class with static methods. Classes
+// are written as version 49 (Java 5), the last version the JVM verifies by type inference, so no
+// StackMapTable has to be computed. Anything over a class file limit throws TooLarge, and the
+// caller leaves that code to the interpreter.
+final class ClassFile {
+    static final class TooLarge extends RuntimeException {
+        private static final long serialVersionUID = 1L;
+
+        TooLarge(String what) {
+            super(what + " exceeds the class file limit");
+        }
+    }
+
+    private static final int ACC_FINAL = 0x0010, ACC_SUPER = 0x0020, ACC_STATIC = 0x0008;
+
+    private final ByteArrayOutputStream pool = new ByteArrayOutputStream();
+    private final DataOutputStream poolOut = new DataOutputStream(pool);
+    private final Map<String, Integer> poolIndex = new HashMap<>();
+    private int poolCount = 1;
+    private final int thisClass, superClass, codeAttribute;
+    private final ArrayList<byte[]> methods = new ArrayList<>();
+
+    ClassFile(String internalName) {
+        thisClass = classRef(internalName);
+        superClass = classRef("java/lang/Object");
+        codeAttribute = utf8("Code");
+    }
+
+    byte[] toByteArray() {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        DataOutputStream out = new DataOutputStream(bytes);
+        try {
+            out.writeInt(0xCAFEBABE);
+            out.writeShort(0);
+            out.writeShort(49);
+            out.writeShort(poolCount);
+            pool.writeTo(out);
+            out.writeShort(ACC_FINAL | ACC_SUPER);
+            out.writeShort(thisClass);
+            out.writeShort(superClass);
+            out.writeShort(0); // interfaces
+            out.writeShort(0); // fields
+            out.writeShort(methods.size());
+            for (byte[] method : methods) out.write(method);
+            out.writeShort(0); // attributes
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return bytes.toByteArray();
+    }
+
+    int utf8(String value) {
+        return constant("U" + value, 1, out -> out.writeUTF(value));
+    }
+
+    int classRef(String internalName) {
+        int name = utf8(internalName);
+        return constant("C" + internalName, 7, out -> out.writeShort(name));
+    }
+
+    int string(String value) {
+        int utf = utf8(value);
+        return constant("S" + value, 8, out -> out.writeShort(utf));
+    }
+
+    int integer(int value) {
+        return constant("I" + value, 3, out -> out.writeInt(value));
+    }
+
+    int floating(float value) {
+        int bits = Float.floatToRawIntBits(value);
+        return constant("F" + bits, 4, out -> out.writeInt(bits));
+    }
+
+    int field(String owner, String name, String descriptor) {
+        return member(9, owner, name, descriptor);
+    }
+
+    int method(String owner, String name, String descriptor) {
+        return member(10, owner, name, descriptor);
+    }
+
+    private int member(int tag, String owner, String name, String descriptor) {
+        int cls = classRef(owner);
+        int nameAndType = nameAndType(name, descriptor);
+        return constant(tag + owner + "." + name + descriptor, tag, out -> {
+            out.writeShort(cls);
+            out.writeShort(nameAndType);
+        });
+    }
+
+    private int nameAndType(String name, String descriptor) {
+        int n = utf8(name), d = utf8(descriptor);
+        return constant("N" + name + descriptor, 12, out -> {
+            out.writeShort(n);
+            out.writeShort(d);
+        });
+    }
+
+    private interface Entry {
+        void write(DataOutputStream out) throws IOException;
+    }
+
+    private int constant(String key, int tag, Entry entry) {
+        Integer index = poolIndex.get(key);
+        if (index != null) return index;
+        if (poolCount >= 0xFFFF) throw new TooLarge("constant pool");
+        try {
+            poolOut.writeByte(tag);
+            entry.write(poolOut);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        poolIndex.put(key, poolCount);
+        return poolCount++;
+    }
+
+    // Bytecode for one static method. Branches go through Labels that are patched once bound.
+    final class Code {
+        private final String name, descriptor;
+        private byte[] code = new byte[256];
+        private int length;
+        private int depth, maxStack, maxLocals;
+        private final ArrayList<int[]> fixups = new ArrayList<>(); // {branch opcode position, operand position, label id}
+        private int[] labels = new int[16];
+        private int labelCount;
+
+        Code(String name, String descriptor, int parameterSlots) {
+            this.name = name;
+            this.descriptor = descriptor;
+            this.maxLocals = parameterSlots;
+        }
+
+        int newLabel() {
+            if (labelCount == labels.length) labels = Arrays.copyOf(labels, labelCount * 2);
+            labels[labelCount] = -1;
+            return labelCount++;
+        }
+
+        void bind(int label) {
+            labels[label] = length;
+        }
+
+        // Adjusts the tracked operand stack depth by delta; the maximum becomes max_stack.
+        void stack(int delta) {
+            depth += delta;
+            maxStack = Math.max(maxStack, depth);
+        }
+
+        void local(int index) {
+            maxLocals = Math.max(maxLocals, index + 1);
+        }
+
+        void op(int opcode) {
+            u1(opcode);
+        }
+
+        void op(int opcode, int u2) {
+            u1(opcode);
+            u2(u2);
+        }
+
+        void jump(int opcode, int label) {
+            int at = length;
+            u1(opcode);
+            fixups.add(new int[] {at, length, label});
+            u2(0);
+        }
+
+        void pushInt(int value) {
+            if (value >= -1 && value <= 5) {
+                op(0x03 + value); // iconst_<n>
+            } else if (value >= Byte.MIN_VALUE && value <= Byte.MAX_VALUE) {
+                u1(0x10); // bipush
+                u1(value);
+            } else if (value >= Short.MIN_VALUE && value <= Short.MAX_VALUE) {
+                op(0x11, value); // sipush
+            } else {
+                ldc(integer(value));
+            }
+            stack(1);
+        }
+
+        void pushFloat(float value) {
+            int bits = Float.floatToRawIntBits(value);
+            if (bits == 0) op(0x0b); // fconst_0
+            else if (bits == Float.floatToRawIntBits(1f)) op(0x0c);
+            else if (bits == Float.floatToRawIntBits(2f)) op(0x0d);
+            else ldc(floating(value));
+            stack(1);
+        }
+
+        void pushString(String value) {
+            ldc(string(value));
+            stack(1);
+        }
+
+        private void ldc(int index) {
+            if (index <= 0xFF) {
+                u1(0x12);
+                u1(index);
+            } else {
+                op(0x13, index); // ldc_w
+            }
+        }
+
+        // iload/istore/fload/fstore/aload with the wide prefix when the index needs it.
+        void var(int opcode, int index) {
+            local(index);
+            if (index <= 0xFF) {
+                u1(opcode);
+                u1(index);
+            } else {
+                u1(0xc4); // wide
+                op(opcode, index);
+            }
+        }
+
+        void finish() {
+            for (int[] fixup : fixups) {
+                int offset = labels[fixup[2]] - fixup[0];
+                if (offset < Short.MIN_VALUE || offset > Short.MAX_VALUE) throw new TooLarge("branch in " + name);
+                code[fixup[1]] = (byte) (offset >> 8);
+                code[fixup[1] + 1] = (byte) offset;
+            }
+            if (length > 0xFFFF) throw new TooLarge("method " + name);
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream(length + 32);
+            DataOutputStream out = new DataOutputStream(bytes);
+            try {
+                out.writeShort(ACC_STATIC);
+                out.writeShort(utf8(name));
+                out.writeShort(utf8(descriptor));
+                out.writeShort(1); // attributes
+                out.writeShort(codeAttribute);
+                out.writeInt(12 + length);
+                out.writeShort(maxStack);
+                out.writeShort(maxLocals);
+                out.writeInt(length);
+                out.write(code, 0, length);
+                out.writeShort(0); // exception table
+                out.writeShort(0); // attributes
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            methods.add(bytes.toByteArray());
+        }
+
+        private void u1(int b) {
+            if (length == code.length) code = Arrays.copyOf(code, length * 2);
+            code[length++] = (byte) b;
+        }
+
+        private void u2(int s) {
+            u1(s >> 8);
+            u1(s);
+        }
+    }
+}
@@ -0,0 +1,106 @@
+package sayakscript;
+
+import java.io.IOException;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+
+// The JVM class AotCompiler produced for a Program, loaded as a hidden class, with a handle for
+// each statement it compiled. Statements without one are run by the interpreter, which shares the
+// frame the compiled statements read their variables from and write them back to.
+final class CompiledScript {
+    // Part of the cache key, so class files written by an older compiler are never reused.
+    static final int VERSION = 1;
+
+    private static final MethodType STATEMENT = MethodType.methodType(void.class, Object[].class, long[].class, OutputSink.class);
+
+    private final MethodHandle[] statements;
+    private final int compiledCount;
+
+    private CompiledScript(MethodHandle[] statements) {
+        this.statements = statements;
+        int count = 0;
+        for (MethodHandle statement : statements) {
+            if (statement != null) count++;
+        }
+        this.compiledCount = count;
+    }
+
+    // Compiles program, whose text is source. With a cache directory the class file is kept there
+    // under a name derived from the source, and a later run of the same source loads it instead.
+    static CompiledScript compile(Program program, String source, Path cacheDir) throws IOException {
+        String name = "CompiledScript_" + hash(source);
+        Path cached = cacheDir == null ? null : cacheDir.resolve(name + ".class");
+        if (cached != null && Files.isRegularFile(cached)) {
+            try {
+                return load(program, Files.readAllBytes(cached));
+            } catch (LinkageError e) {
+                // unreadable or stale: compile again and overwrite it
+            }
+        }
+        byte[] classFile = AotCompiler.compile(program, "sayakscript/" + name);
+        if (classFile == null) return new CompiledScript(new MethodHandle[program.statements.length]);
+        if (cached != null) {
+            Files.createDirectories(cacheDir);
+            Files.write(cached, classFile);
+        }
+        return load(program, classFile);
+    }
+
+    private static CompiledScript load(Program program, byte[] classFile) {
+        MethodHandles.Lookup lookup;
+        try {
+            lookup = MethodHandles.lookup().defineHiddenClass(classFile, true);
+        } catch (IllegalAccessException e) {
+            throw new IllegalStateException(e);
+        }
+        MethodHandle[] statements = new MethodHandle[program.statements.length];
+        for (int i = 0; i < statements.length; i++) {
+            try {
+                statements[i] = lookup.findStatic(lookup.lookupClass(), "s" + i, STATEMENT);
+            } catch (NoSuchMethodException e) {
+                // not compiled
+            } catch (IllegalAccessException e) {
+                throw new IllegalStateException(e);
+            }
+        }
+        return new CompiledScript(statements);
+    }
+
+    private static String hash(String source) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            digest.update((VERSION + "\n").getBytes(StandardCharsets.UTF_8));
+            byte[] hash = digest.digest(source.getBytes(StandardCharsets.UTF_8));
+            StringBuilder hex = new StringBuilder();
+            for (int i = 0; i < 8; i++) hex.append(String.format("%02x", hash[i]));
+            return hex.toString();
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    // Runs statement i if it was compiled; returns false if the interpreter has to run it.
+    boolean run(int i, Object[] frame, long[] frameBits, OutputSink out) {
+        MethodHandle statement = statements[i];
+        if (statement == null) return false;
+        try {
+            statement.invokeExact(frame, frameBits, out);
+        } catch (RuntimeException | Error e) {
+            throw e;
+        } catch (Throwable t) {
+            throw new RuntimeException(t);
+        }
+        return true;
+    }
+
+    @Override
+    public String toString() {
+        return "AOT: compiled " + compiledCount + " of " + statements.length + " statements";
+    }
+}
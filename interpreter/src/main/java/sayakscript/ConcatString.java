@@ -0,0 +1,111 @@
+package sayakscript;
+
+// The result of a string '+' too long to be worth copying on every concatenation. Its characters
+// are a window of a buffer shared with the values it was built from. The buffer can grow at both
+// ends: adding to the right of the value that reaches its end, or to the left of the value that
+// reaches its start, writes into the buffer in place. So a loop running 'le sayak s = s + i;' or
+// 'le sayak s = i + s;' copies each character a constant number of times instead of once per
+// iteration. Values built from the same buffer never change: each one sees only its own window.
+// The text is materialized, once, when the value is printed or otherwise turned into a String.
+final class ConcatString {
+    // Shorter results are plain Strings; copying them is cheaper than sharing a buffer.
+    static final int FLAT_LIMIT = 64;
+
+    // Positions are logical, so windows stay valid when the array is reallocated: logical
+    // position p is at data[p + shift]. Only [begin, end) holds characters.
+    private static final class Chars {
+        char[] data;
+        int shift, begin, end;
+
+        Chars(String left, String right) {
+            int length = left.length() + right.length();
+            data = new char[capacity(length * 2L)];
+            shift = (data.length - length) / 2;
+            end = length;
+            left.getChars(0, left.length(), data, shift);
+            right.getChars(0, right.length(), data, shift + left.length());
+        }
+
+        // Makes room for front more characters before begin and back more after end.
+        void reserve(int front, int back) {
+            if (begin + shift >= front && data.length - (end + shift) >= back) return;
+            int used = end - begin;
+            char[] grown = new char[capacity(Math.max(data.length * 2L, (used + (long) front + back) * 2))];
+            int at = front + (grown.length - used - front - back) / 2;
+            System.arraycopy(data, begin + shift, grown, at, used);
+            shift = at - begin;
+            data = grown;
+        }
+
+        private static int capacity(long wanted) {
+            return (int) Math.min(wanted, Integer.MAX_VALUE - 8);
+        }
+    }
+
+    private final Chars chars; // guarded by itself: parallel loop chunks may grow the same one
+    private final int start;
+    private final int length;
+    private String flat;
+
+    private ConcatString(Chars chars, int start, int length) {
+        this.chars = chars;
+        this.start = start;
+        this.length = length;
+    }
+
+    // Concatenates two string values, each a String or a ConcatString. The operand that is not
+    // grown in place is flattened before any buffer is locked, so no thread ever holds two locks.
+    static Object concat(Object left, Object right) {
+        int total = length(left) + length(right);
+        if (total <= FLAT_LIMIT) return ((String) left).concat((String) right);
+        String tail = null;
+        if (left instanceof ConcatString) {
+            tail = right.toString();
+            ConcatString grown = ((ConcatString) left).append(tail);
+            if (grown != null) return grown;
+        }
+        String head = left.toString();
+        if (right instanceof ConcatString) {
+            ConcatString grown = ((ConcatString) right).prepend(head);
+            if (grown != null) return grown;
+        }
+        // neither value is at the growing end of its buffer, so start a new one
+        return new ConcatString(new Chars(head, tail != null ? tail : right.toString()), 0, total);
+    }
+
+    static int length(Object text) {
+        return text instanceof ConcatString ? ((ConcatString) text).length : ((String) text).length();
+    }
+
+    private ConcatString append(String tail) {
+        synchronized (chars) {
+            if (start + length != chars.end) return null;
+            chars.reserve(0, tail.length());
+            tail.getChars(0, tail.length(), chars.data, chars.end + chars.shift);
+            chars.end += tail.length();
+            return new ConcatString(chars, start, length + tail.length());
+        }
+    }
+
+    private ConcatString prepend(String head) {
+        synchronized (chars) {
+            if (start != chars.begin) return null;
+            chars.reserve(head.length(), 0);
+            chars.begin -= head.length();
+            head.getChars(0, head.length(), chars.data, chars.begin + chars.shift);
+            return new ConcatString(chars, chars.begin, length + head.length());
+        }
+    }
+
+    @Override
+    public String toString() {
+        String text = flat;
+        if (text == null) {
+            synchronized (chars) {
+                text = new String(chars.data, start + chars.shift, length);
+            }
+            flat = text;
+        }
+        return text;
+    }
+}
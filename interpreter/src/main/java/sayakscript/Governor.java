@@ -0,0 +1,109 @@
+package sayakscript;
+
+// Enforces the limits set by --max-steps, --max-time, --max-array, --max-string and --max-values
+// on one run: a script, a REPL line or a server session. The interpreter only calls in while a
+// governor is installed, and then only where a script can grow without bound: step() on every
+// loop iteration (the backward edge) and every top-level statement, array() and string() where
+// values are built, and store() where a variable changes, to keep count of the values variables
+// hold, with an array counting as its elements. The clock is read every CHECK_INTERVAL steps, and
+// that is also where a script with a TimeSlicer gives up its turn once its slice is used.
+//
+// A script that goes over a limit is stopped with an error naming the limit and what it had used.
+final class Governor {
+    static final long UNLIMITED = Long.MAX_VALUE;
+    private static final int CHECK_INTERVAL = 1 << 10;
+
+    private final long maxSteps, maxNanos, maxArray, maxString, maxValues;
+    private final TimeSlicer slicer;
+    private long steps, nextCheck, started, deadline, sliceEnd, suspended;
+    private long values;
+
+    Governor(long maxSteps, long maxMillis, long maxArray, long maxString, long maxValues, TimeSlicer slicer) {
+        this.maxSteps = maxSteps;
+        this.maxNanos = maxMillis == UNLIMITED ? UNLIMITED : maxMillis * 1_000_000;
+        this.maxArray = maxArray;
+        this.maxString = maxString;
+        this.maxValues = maxValues;
+        this.slicer = slicer;
+        start();
+    }
+
+    // A governor with the same limits and slicer for another run, such as a new session.
+    Governor fresh() {
+        return new Governor(maxSteps, maxNanos == UNLIMITED ? UNLIMITED : maxNanos / 1_000_000, maxArray, maxString,
+                maxValues, slicer);
+    }
+
+    // Starts a new run: steps and time count from zero again. Values still held by variables stay
+    // counted, since the variables outlive the run at the REPL.
+    void start() {
+        steps = 0;
+        nextCheck = Math.min(CHECK_INTERVAL, maxSteps == UNLIMITED ? UNLIMITED : maxSteps + 1);
+        started = System.nanoTime();
+        deadline = maxNanos == UNLIMITED ? UNLIMITED : started + maxNanos;
+        sliceEnd = slicer == null ? UNLIMITED : started + slicer.sliceNanos;
+    }
+
+    TimeSlicer slicer() {
+        return slicer;
+    }
+
+    void step() {
+        if (++steps >= nextCheck) check();
+    }
+
+    private void check() {
+        if (steps > maxSteps) throw exceeded("reached the step limit (--max-steps=" + maxSteps + ")");
+        nextCheck = Math.min(steps + CHECK_INTERVAL, maxSteps == UNLIMITED ? UNLIMITED : maxSteps + 1);
+        long now = System.nanoTime();
+        if (deadline != UNLIMITED && now - deadline > 0) throw exceeded("ran out of time (--max-time=" + maxNanos / 1_000_000 + ")");
+        if (sliceEnd != UNLIMITED && now - sliceEnd >= 0) {
+            // time spent waiting for the next turn does not count against the time limit
+            long waited = slicer.yieldTurn();
+            if (deadline != UNLIMITED) deadline += waited;
+            sliceEnd = System.nanoTime() + slicer.sliceNanos;
+        }
+    }
+
+    // Around a blocking read: the turn is given up meanwhile, and the wait counts as neither running
+    // time nor slice time.
+    void suspend() {
+        suspended = System.nanoTime();
+        if (slicer != null) slicer.end();
+    }
+
+    void resume() {
+        if (slicer != null) slicer.begin();
+        long now = System.nanoTime();
+        if (deadline != UNLIMITED) deadline += now - suspended;
+        if (sliceEnd != UNLIMITED) sliceEnd = now + slicer.sliceNanos;
+    }
+
+    void array(int length) {
+        if (length > maxArray) throw exceeded("built an array of " + length + " values (--max-array=" + maxArray + ")");
+    }
+
+    // text is a String or a ConcatString
+    void string(Object text) {
+        int length = ConcatString.length(text);
+        if (length > maxString) throw exceeded("built a string of " + length + " characters (--max-string=" + maxString + ")");
+    }
+
+    // A variable holding old is about to hold value.
+    void store(Object old, Object value) {
+        if (old == value) return; // the common case: an int replaced by an int, which shares its tag
+        long held = values + count(value) - count(old);
+        if (held > maxValues) throw exceeded("needed " + held + " values in variables (--max-values=" + maxValues + ")");
+        values = held;
+    }
+
+    private static long count(Object tag) {
+        if (tag == null) return 0;
+        return tag instanceof ArrayValue ? ((ArrayValue) tag).valueCount() : 1;
+    }
+
+    private RuntimeException exceeded(String what) {
+        return new RuntimeException(String.format("Script stopped: %s after %d steps and %.3f ms, holding %d values",
+                what, steps, (System.nanoTime() - started) / 1e6, values));
+    }
+}
@@ -0,0 +1,412 @@
+package sayakscript;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.io.UncheckedIOException;
+import java.util.Arrays;
+
+// Scans the source once into parallel arrays of token kind, [start, end) offsets, source line
+// and pre-parsed numeric value, so the parser can dispatch on kinds instead of strings.
+// Tokens are produced on demand as the parser asks for them.
+class Lexer {
+    static final int EOF = 0;
+    static final int WORD = 1;
+    static final int INT = 2;
+    static final int INT_OVERFLOW = 3; // all digits, but does not fit in an int
+    static final int FLOAT = 4;
+    static final int STRING = 5;
+
+    static final int KW_LE = 6;
+    static final int KW_SAYAK = 7;
+    static final int KW_DEKHO = 8;
+    static final int KW_BOLO = 9;
+    static final int KW_AGAR = 10;
+    static final int KW_WARNA = 11;
+    static final int KW_FOR = 12;
+    static final int KW_IN = 13;
+    static final int KW_RANGE = 14;
+    static final int KW_TO = 15;
+    static final int KW_CLS = 16;
+    static final int KW_PRANGE = 17;
+
+    static final int LBRACE = 18;
+    static final int RBRACE = 19;
+    static final int LPAREN = 20;
+    static final int RPAREN = 21;
+    static final int LBRACKET = 22;
+    static final int RBRACKET = 23;
+    static final int COMMA = 24;
+    static final int SEMI = 25;
+
+    static final int PLUS = 26;
+    static final int STAR = 27;
+    static final int GT = 28;
+    static final int LT = 29;
+    static final int GE = 30;
+    static final int LE = 31;
+    static final int EQ = 32;
+    static final int ASSIGN = 33;
+    static final int OTHER_OP = 34; // -, /, +=, -=, *=, /=: lexed but not part of the grammar
+
+    private static final int CHUNK = 1 << 16;
+
+    // Characters live in buf, which holds absolute source offsets [bufBase, bufEnd). A lexer over a
+    // String has everything up front; one over a Reader pulls chunks as the parser asks for tokens
+    // (and one fed by append() takes text as it is typed), dropping characters no buffered token
+    // needs any more.
+    private final Reader reader;
+    private char[] buf;
+    private int bufBase;
+    private int bufEnd;
+    private int limit; // end of lexable input: bufEnd until the reader is exhausted, then the trimmed end
+    private boolean eof;
+    private boolean started;
+    private int scanPos;
+    private int line = 1; // line of scanPos
+
+    // Token i (absolute) is at index i - tokenBase; discard() slides the window forward.
+    private int[] kinds = new int[64];
+    private int[] starts = new int[64];
+    private int[] ends = new int[64];
+    private int[] values = new int[64];
+    private int[] lines = new int[64];
+    private int tokenBase;
+    private int count;
+
+    Lexer(String src) {
+        this.reader = null;
+        this.buf = src.toCharArray();
+        this.bufEnd = buf.length;
+        this.eof = true;
+        this.limit = trimmedEnd();
+    }
+
+    Lexer(Reader reader) {
+        this.reader = reader;
+        this.buf = new char[CHUNK];
+    }
+
+    // A lexer for text that arrives a piece at a time through append(), such as the lines of a
+    // block typed at the REPL. Between appends it behaves like a lexer over all the text so far.
+    Lexer() {
+        this.reader = null;
+        this.buf = new char[256];
+        this.eof = true;
+    }
+
+    // Adds text after everything appended so far. Only the new text gets scanned, when the parser
+    // (or kind()) first asks for a token in it; characters no buffered token needs are dropped.
+    void append(String text) {
+        compact();
+        int used = bufEnd - bufBase;
+        if (used + text.length() > buf.length) buf = Arrays.copyOf(buf, Math.max(buf.length * 2, used + text.length()));
+        text.getChars(0, text.length(), buf, used);
+        bufEnd += text.length();
+        limit = trimmedEnd();
+    }
+
+    int kind(int i) {
+        while (i - tokenBase >= count) {
+            if (!scanToken()) return EOF;
+        }
+        return kinds[i - tokenBase];
+    }
+
+    int start(int i) {
+        return starts[i - tokenBase];
+    }
+
+    int end(int i) {
+        return ends[i - tokenBase];
+    }
+
+    int line(int i) {
+        return lines[i - tokenBase];
+    }
+
+    boolean isInteger(int i) {
+        int k = kind(i);
+        return k == INT || k == INT_OVERFLOW;
+    }
+
+    int intValue(int i) {
+        if (kinds[i - tokenBase] == INT_OVERFLOW) return Integer.parseInt(text(i)); // throws the usual NumberFormatException
+        return values[i - tokenBase];
+    }
+
+    float floatValue(int i) {
+        return Float.intBitsToFloat(values[i - tokenBase]);
+    }
+
+    String text(int i) {
+        return substring(starts[i - tokenBase], ends[i - tokenBase]);
+    }
+
+    String stringValue(int i) {
+        return substring(starts[i - tokenBase] + 1, ends[i - tokenBase] - 1);
+    }
+
+    boolean contains(int i, char c) {
+        for (int p = starts[i - tokenBase]; p < ends[i - tokenBase]; p++) {
+            if (charAt(p) == c) return true;
+        }
+        return false;
+    }
+
+    // Forgets every token before i; the parser calls this between top-level statements so a
+    // streamed source never keeps more than the current statement's tokens and characters.
+    void discard(int i) {
+        int drop = Math.min(i - tokenBase, count);
+        if (drop <= 0) return;
+        System.arraycopy(kinds, drop, kinds, 0, count - drop);
+        System.arraycopy(starts, drop, starts, 0, count - drop);
+        System.arraycopy(ends, drop, ends, 0, count - drop);
+        System.arraycopy(values, drop, values, 0, count - drop);
+        System.arraycopy(lines, drop, lines, 0, count - drop);
+        count -= drop;
+        tokenBase += drop;
+    }
+
+    private char charAt(int p) {
+        return buf[p - bufBase];
+    }
+
+    private String substring(int s, int e) {
+        return new String(buf, s - bufBase, e - s);
+    }
+
+    private boolean available(int p) {
+        while (p >= limit) {
+            if (eof) return false;
+            fill();
+        }
+        return true;
+    }
+
+    private void fill() {
+        compact();
+        // a reader may need two chars of room to hand out a surrogate pair
+        if (buf.length - (bufEnd - bufBase) < 2) buf = Arrays.copyOf(buf, buf.length * 2);
+        int n;
+        try {
+            n = reader.read(buf, bufEnd - bufBase, buf.length - (bufEnd - bufBase));
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        if (n < 0) {
+            eof = true;
+            limit = trimmedEnd();
+        } else {
+            bufEnd += n;
+            limit = bufEnd;
+        }
+    }
+
+    private void compact() {
+        int keep = count > 0 ? Math.min(starts[0], scanPos) : scanPos;
+        if (keep > bufBase) {
+            System.arraycopy(buf, keep - bufBase, buf, 0, bufEnd - keep);
+            bufBase = keep;
+        }
+    }
+
+    private int trimmedEnd() {
+        int end = bufEnd;
+        while (end > Math.max(scanPos, bufBase) && buf[end - 1 - bufBase] <= ' ') end--;
+        return end;
+    }
+
+    // Scans one token (or several, for an unclosed quote); false once the input is exhausted.
+    private boolean scanToken() {
+        if (!started) {
+            while (available(scanPos) && charAt(scanPos) <= ' ') {
+                if (charAt(scanPos) == '\n') line++;
+                scanPos++;
+            }
+            started = true;
+        }
+        while (available(scanPos)) {
+            int i = scanPos;
+            char c = charAt(i);
+            switch (c) {
+                case '"':
+                case '\'': {
+                    int close = i + 1;
+                    while (available(close) && charAt(close) != c) close++;
+                    if (close >= limit) {
+                        unterminated(i);
+                        scanPos = limit;
+                    } else {
+                        add(STRING, i, close + 1, 0);
+                        for (int p = i + 1; p < close; p++) {
+                            if (charAt(p) == '\n') line++;
+                        }
+                        scanPos = close + 1;
+                    }
+                    return true;
+                }
+                case '{': return punctuation(LBRACE, i);
+                case '}': return punctuation(RBRACE, i);
+                case '(': return punctuation(LPAREN, i);
+                case ')': return punctuation(RPAREN, i);
+                case '[': return punctuation(LBRACKET, i);
+                case ']': return punctuation(RBRACKET, i);
+                case ',': return punctuation(COMMA, i);
+                case ';': return punctuation(SEMI, i);
+                case '+':
+                case '-':
+                case '*':
+                case '/':
+                case '>':
+                case '<':
+                case '=': {
+                    boolean withEq = available(i + 1) && charAt(i + 1) == '=';
+                    scanPos = withEq ? i + 2 : i + 1;
+                    add(operator(c, withEq), i, scanPos, 0);
+                    return true;
+                }
+                default: {
+                    if (Character.isWhitespace(c)) {
+                        if (c == '\n') line++;
+                        scanPos++;
+                        break;
+                    }
+                    int e = i;
+                    while (available(e) && isWordChar(charAt(e))) e++;
+                    scanPos = e;
+                    word(i, e);
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    private boolean punctuation(int kind, int i) {
+        add(kind, i, i + 1, 0);
+        scanPos = i + 1;
+        return true;
+    }
+
+    private static boolean isWordChar(char c) {
+        switch (c) {
+            case '"': case '\'':
+            case '{': case '}': case '(': case ')': case '[': case ']': case ',': case ';':
+            case '+': case '-': case '*': case '/': case '>': case '<': case '=':
+                return false;
+            default:
+                return !Character.isWhitespace(c);
+        }
+    }
+
+    private static int operator(char c, boolean withEq) {
+        switch (c) {
+            case '+': return withEq ? OTHER_OP : PLUS;
+            case '*': return withEq ? OTHER_OP : STAR;
+            case '>': return withEq ? GE : GT;
+            case '<': return withEq ? LE : LT;
+            case '=': return withEq ? EQ : ASSIGN;
+            default: return OTHER_OP;
+        }
+    }
+
+    // An unclosed quote swallows the rest of the input as one word, split once around '='.
+    private void unterminated(int s) {
+        int eq = s;
+        while (eq < limit && charAt(eq) != '=') eq++;
+        if (eq >= limit) {
+            add(WORD, s, limit, 0);
+            return;
+        }
+        add(WORD, s, eq, 0);
+        add(ASSIGN, eq, eq + 1, 0);
+        if (eq + 1 < limit) word(eq + 1, limit);
+    }
+
+    private void word(int s, int e) {
+        int kw = keyword(s, e);
+        if (kw != WORD) {
+            add(kw, s, e, 0);
+            return;
+        }
+        int p = s;
+        long value = 0;
+        while (p < e && isDigit(charAt(p))) {
+            if (value <= Integer.MAX_VALUE) value = value * 10 + (charAt(p) - '0');
+            p++;
+        }
+        if (p == s) {
+            add(WORD, s, e, 0);
+        } else if (p == e) {
+            if (value <= Integer.MAX_VALUE) add(INT, s, e, (int) value);
+            else add(INT_OVERFLOW, s, e, 0);
+        } else if (charAt(p) == '.' && p + 1 < e && allDigits(p + 1, e)) {
+            add(FLOAT, s, e, Float.floatToRawIntBits(Float.parseFloat(substring(s, e))));
+        } else {
+            add(WORD, s, e, 0);
+        }
+    }
+
+    private int keyword(int s, int e) {
+        switch (e - s) {
+            case 2:
+                if (matches(s, "le")) return KW_LE;
+                if (matches(s, "in")) return KW_IN;
+                if (matches(s, "to")) return KW_TO;
+                break;
+            case 3:
+                if (matches(s, "for")) return KW_FOR;
+                if (matches(s, "cls")) return KW_CLS;
+                break;
+            case 4:
+                if (matches(s, "bolo")) return KW_BOLO;
+                if (matches(s, "agar")) return KW_AGAR;
+                break;
+            case 5:
+                if (matches(s, "sayak")) return KW_SAYAK;
+                if (matches(s, "dekho")) return KW_DEKHO;
+                if (matches(s, "warna")) return KW_WARNA;
+                if (matches(s, "range")) return KW_RANGE;
+                break;
+            case 6:
+                if (matches(s, "prange")) return KW_PRANGE;
+                break;
+        }
+        return WORD;
+    }
+
+    private boolean matches(int s, String keyword) {
+        for (int k = 0; k < keyword.length(); k++) {
+            if (charAt(s + k) != keyword.charAt(k)) return false;
+        }
+        return true;
+    }
+
+    private boolean allDigits(int s, int e) {
+        for (int p = s; p < e; p++) {
+            if (!isDigit(charAt(p))) return false;
+        }
+        return true;
+    }
+
+    private static boolean isDigit(char c) {
+        return c >= '0' && c <= '9';
+    }
+
+    private void add(int kind, int start, int end, int value) {
+        if (count == kinds.length) {
+            int n = count * 2;
+            kinds = Arrays.copyOf(kinds, n);
+            starts = Arrays.copyOf(starts, n);
+            ends = Arrays.copyOf(ends, n);
+            values = Arrays.copyOf(values, n);
+            lines = Arrays.copyOf(lines, n);
+        }
+        kinds[count] = kind;
+        starts[count] = start;
+        ends[count] = end;
+        values[count] = value;
+        lines[count] = line;
+        count++;
+    }
+}
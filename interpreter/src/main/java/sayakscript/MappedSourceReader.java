@@ -0,0 +1,84 @@
+package sayakscript;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.CharsetDecoder;
+import java.nio.charset.CodingErrorAction;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+// Reads a UTF-8 source file by memory-mapping it a window at a time and decoding straight into
+// the caller's buffer, so a huge script is never copied onto the heap as a whole.
+final class MappedSourceReader extends Reader {
+    private static final long WINDOW = 1L << 26;
+
+    private final FileChannel channel;
+    private final long size;
+    private final CharsetDecoder decoder = StandardCharsets.UTF_8.newDecoder()
+            .onMalformedInput(CodingErrorAction.REPLACE)
+            .onUnmappableCharacter(CodingErrorAction.REPLACE);
+    private ByteBuffer window;
+    private long windowStart;
+    private boolean flushed;
+    private final CharBuffer carry = CharBuffer.allocate(2).flip(); // decoded, not yet handed out
+
+    MappedSourceReader(Path path) throws IOException {
+        this.channel = FileChannel.open(path, StandardOpenOption.READ);
+        this.size = channel.size();
+        map(0);
+    }
+
+    @Override
+    public int read(char[] cbuf, int off, int len) throws IOException {
+        if (len == 0) return 0;
+        if (carry.hasRemaining()) {
+            int n = Math.min(len, carry.remaining());
+            carry.get(cbuf, off, n);
+            return n;
+        }
+        if (flushed) return -1;
+        CharBuffer out = CharBuffer.wrap(cbuf, off, len);
+        decode(out);
+        if (out.position() == off && !flushed) {
+            // Room for one char, but the next code point is a surrogate pair: decode it aside and
+            // hand out its first half now, so a read never returns 0.
+            carry.clear();
+            decode(carry);
+            carry.flip();
+            if (!carry.hasRemaining()) return -1;
+            cbuf[off] = carry.get();
+            return 1;
+        }
+        int n = out.position() - off;
+        return n == 0 && flushed ? -1 : n;
+    }
+
+    private void decode(CharBuffer out) throws IOException {
+        while (out.hasRemaining()) {
+            boolean last = windowStart + window.limit() >= size;
+            if (decoder.decode(window, out, last).isOverflow()) return;
+            if (!last) {
+                // Ran out of mapped bytes mid-file: remap from the first undecoded byte.
+                map(windowStart + window.position());
+                continue;
+            }
+            if (decoder.flush(out).isOverflow()) return;
+            flushed = true;
+            return;
+        }
+    }
+
+    private void map(long start) throws IOException {
+        windowStart = start;
+        window = channel.map(FileChannel.MapMode.READ_ONLY, start, Math.min(WINDOW, size - start));
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+}
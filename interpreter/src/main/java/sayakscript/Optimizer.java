@@ -0,0 +1,224 @@
+package sayakscript;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.Set;
+
+// Runs on each parsed statement before it is resolved and executed: folds constant BinaryOpNode
+// trees, drops agar branches and empty ranges that can never run, and hoists loop-invariant
+// expressions out of for bodies. Anything whose constant evaluation would fail is left alone so
+// the error still happens at runtime, in order.
+final class Optimizer {
+    private int removed;
+    private int hoisted;
+
+    int removedNodes() {
+        return removed;
+    }
+
+    int hoistedExpressions() {
+        return hoisted;
+    }
+
+    ASTNode[] optimize(ASTNode stmt) {
+        ArrayList<ASTNode> out = new ArrayList<>(1);
+        statement(stmt, out);
+        return out.toArray(new ASTNode[0]);
+    }
+
+    private ASTNode[] block(ASTNode[] stmts) {
+        ArrayList<ASTNode> out = new ArrayList<>(stmts.length);
+        for (ASTNode stmt : stmts) statement(stmt, out);
+        return out.toArray(new ASTNode[0]);
+    }
+
+    private void statement(ASTNode node, ArrayList<ASTNode> out) {
+        if (node instanceof AssignNode) {
+            AssignNode assign = (AssignNode) node;
+            fold(assign.expr);
+            out.add(node);
+        } else if (node instanceof PrintNode) {
+            fold(((PrintNode) node).expr);
+            out.add(node);
+        } else if (node instanceof IfNode) {
+            IfNode ifNode = (IfNode) node;
+            ExprNode condition = fold(ifNode.condition);
+            ifNode.thenBlock = block(ifNode.thenBlock);
+            ifNode.elseBlock = block(ifNode.elseBlock);
+            if (condition instanceof NumberNode) {
+                boolean taken = Values.isTrue(((NumberNode) condition).tag, ((NumberNode) condition).bits);
+                ASTNode[] kept = taken ? ifNode.thenBlock : ifNode.elseBlock;
+                removed += 2 + size(taken ? ifNode.elseBlock : ifNode.thenBlock);
+                for (ASTNode stmt : kept) out.add(stmt);
+            } else {
+                out.add(node);
+            }
+        } else if (node instanceof ForNode) {
+            ForNode forNode = (ForNode) node;
+            if (forNode.start > forNode.end) {
+                removed += size(forNode);
+                return;
+            }
+            forNode.body = block(forNode.body);
+            hoist(forNode);
+            out.add(node);
+        } else {
+            out.add(node);
+        }
+    }
+
+    // Folds expr in place and returns whatever now sits where it was.
+    private ExprNode fold(ExprNode expr) {
+        if (expr instanceof ArrayNode) {
+            ArrayList<ExprNode> elements = ((ArrayNode) expr).elements;
+            for (int i = 0; i < elements.size(); i++) fold(elements.get(i));
+            ((ArrayNode) expr).updateConstant();
+        } else if (expr instanceof BinaryOpNode) {
+            BinaryOpNode binOp = (BinaryOpNode) expr;
+            Object left = constant(fold(binOp.left));
+            Object right = constant(fold(binOp.right));
+            if (left != null && right != null) {
+                Object value;
+                try {
+                    value = Values.fold(binOp.op, left, right);
+                } catch (RuntimeException e) {
+                    return expr;
+                }
+                removed += 2;
+                return expr.replace(value instanceof String ? new StringNode((String) value) : new NumberNode((Number) value));
+            }
+        }
+        return expr;
+    }
+
+    private static Object constant(ExprNode expr) {
+        if (expr instanceof NumberNode) return ((NumberNode) expr).value;
+        if (expr instanceof StringNode) return ((StringNode) expr).value;
+        if (expr instanceof ArrayNode) return ((ArrayNode) expr).constant;
+        return null;
+    }
+
+    private void hoist(ForNode loop) {
+        Set<String> written = new HashSet<>();
+        written.add(loop.varName);
+        writes(loop.body, written);
+        ArrayList<HoistedNode> owned = new ArrayList<>();
+        hoist(loop.body, written, owned);
+        loop.hoisted = owned.toArray(new HoistedNode[0]);
+    }
+
+    private void hoist(ASTNode[] stmts, Set<String> written, ArrayList<HoistedNode> owned) {
+        for (ASTNode stmt : stmts) {
+            if (stmt instanceof AssignNode) {
+                hoist(((AssignNode) stmt).expr, written, owned);
+            } else if (stmt instanceof PrintNode) {
+                hoist(((PrintNode) stmt).expr, written, owned);
+            } else if (stmt instanceof IfNode) {
+                IfNode ifNode = (IfNode) stmt;
+                hoist(ifNode.condition, written, owned);
+                hoist(ifNode.thenBlock, written, owned);
+                hoist(ifNode.elseBlock, written, owned);
+            } else if (stmt instanceof ForNode) {
+                // The inner loop already hoisted what is invariant for it; whatever is also
+                // invariant here only needs resetting when this loop is entered.
+                ForNode inner = (ForNode) stmt;
+                ArrayList<HoistedNode> keep = new ArrayList<>();
+                for (HoistedNode node : inner.hoisted) {
+                    if (invariant(node.expr, written)) owned.add(node);
+                    else keep.add(node);
+                }
+                inner.hoisted = keep.toArray(new HoistedNode[0]);
+            }
+        }
+    }
+
+    private void hoist(ExprNode expr, Set<String> written, ArrayList<HoistedNode> owned) {
+        if (expr instanceof HoistedNode || expr instanceof VarNode) return;
+        if (invariant(expr, written)) {
+            if (!readsVariable(expr)) return;
+            ExprParent parent = expr.parent;
+            HoistedNode node = new HoistedNode(expr, " hoisted#" + hoisted++);
+            node.parent = parent;
+            parent.replaceChild(expr, node);
+            owned.add(node);
+        } else if (expr instanceof ArrayNode) {
+            ArrayList<ExprNode> elements = ((ArrayNode) expr).elements;
+            for (int i = 0; i < elements.size(); i++) hoist(elements.get(i), written, owned);
+        } else if (expr instanceof BinaryOpNode) {
+            BinaryOpNode binOp = (BinaryOpNode) expr;
+            hoist(binOp.left, written, owned);
+            hoist(binOp.right, written, owned);
+        }
+    }
+
+    private static boolean invariant(ExprNode expr, Set<String> written) {
+        if (expr instanceof VarNode) return !written.contains(((VarNode) expr).varName);
+        if (expr instanceof HoistedNode) return invariant(((HoistedNode) expr).expr, written);
+        if (expr instanceof BinaryOpNode) {
+            return invariant(((BinaryOpNode) expr).left, written) && invariant(((BinaryOpNode) expr).right, written);
+        }
+        if (expr instanceof ArrayNode) {
+            for (ExprNode element : ((ArrayNode) expr).elements) {
+                if (!invariant(element, written)) return false;
+            }
+        }
+        return true;
+    }
+
+    private static boolean readsVariable(ExprNode expr) {
+        if (expr instanceof VarNode || expr instanceof HoistedNode) return true;
+        if (expr instanceof BinaryOpNode) {
+            return readsVariable(((BinaryOpNode) expr).left) || readsVariable(((BinaryOpNode) expr).right);
+        }
+        if (expr instanceof ArrayNode) {
+            for (ExprNode element : ((ArrayNode) expr).elements) {
+                if (readsVariable(element)) return true;
+            }
+        }
+        return false;
+    }
+
+    private static void writes(ASTNode[] stmts, Set<String> written) {
+        for (ASTNode stmt : stmts) {
+            if (stmt instanceof AssignNode) {
+                written.add(((AssignNode) stmt).varName);
+            } else if (stmt instanceof InputNode) {
+                written.add(((InputNode) stmt).varName);
+            } else if (stmt instanceof IfNode) {
+                writes(((IfNode) stmt).thenBlock, written);
+                writes(((IfNode) stmt).elseBlock, written);
+            } else if (stmt instanceof ForNode) {
+                written.add(((ForNode) stmt).varName);
+                writes(((ForNode) stmt).body, written);
+            }
+        }
+    }
+
+    private static int size(ASTNode[] stmts) {
+        int n = 0;
+        for (ASTNode stmt : stmts) n += size(stmt);
+        return n;
+    }
+
+    private static int size(ASTNode node) {
+        if (node instanceof AssignNode) return 1 + size(((AssignNode) node).expr);
+        if (node instanceof PrintNode) return 1 + size(((PrintNode) node).expr);
+        if (node instanceof IfNode) {
+            IfNode ifNode = (IfNode) node;
+            return 1 + size(ifNode.condition) + size(ifNode.thenBlock) + size(ifNode.elseBlock);
+        }
+        if (node instanceof ForNode) return 1 + size(((ForNode) node).body);
+        return 1;
+    }
+
+    private static int size(ExprNode expr) {
+        if (expr instanceof BinaryOpNode) return 1 + size(((BinaryOpNode) expr).left) + size(((BinaryOpNode) expr).right);
+        if (expr instanceof HoistedNode) return 1 + size(((HoistedNode) expr).expr);
+        if (expr instanceof ArrayNode) {
+            int n = 1;
+            for (ExprNode element : ((ArrayNode) expr).elements) n += size(element);
+            return n;
+        }
+        return 1;
+    }
+}
@@ -0,0 +1,121 @@
+package sayakscript;
+
+import java.io.FileDescriptor;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.Charset;
+import java.nio.charset.CharsetEncoder;
+import java.nio.charset.CoderResult;
+import java.nio.charset.CodingErrorAction;
+
+// Where program output (dekho, prompts, cls) goes. The console sink writes each line straight to
+// System.out, which is what an interactive session wants. The buffered sink encodes into one large
+// byte buffer and hands it to a channel only when it fills up or is flushed, so a print-heavy loop
+// costs a few big writes instead of a locked, flushed println per statement.
+abstract class OutputSink {
+    static final int DEFAULT_BUFFER_SIZE = 1 << 16;
+
+    abstract void print(String text);
+
+    abstract void println(String line);
+
+    abstract void flush();
+
+    static OutputSink console() {
+        return new Console();
+    }
+
+    static OutputSink buffered() {
+        return new Buffered(new FileOutputStream(FileDescriptor.out).getChannel(), DEFAULT_BUFFER_SIZE, Charset.defaultCharset());
+    }
+
+    static OutputSink buffered(WritableByteChannel channel, int bufferSize) {
+        return new Buffered(channel, bufferSize, Charset.defaultCharset());
+    }
+
+    static OutputSink buffered(WritableByteChannel channel, int bufferSize, Charset charset) {
+        return new Buffered(channel, bufferSize, charset);
+    }
+
+    // Keeps output in memory until writeTo() replays it into another sink; parallel loop chunks
+    // use one each so their output can be emitted in iteration order.
+    static final class Captured extends OutputSink {
+        private final StringBuilder text = new StringBuilder();
+
+        void print(String s) {
+            text.append(s);
+        }
+
+        void println(String line) {
+            text.append(line).append(System.lineSeparator());
+        }
+
+        void flush() {
+        }
+
+        void writeTo(OutputSink target) {
+            if (text.length() > 0) target.print(text.toString());
+        }
+    }
+
+    private static final class Console extends OutputSink {
+        void print(String text) {
+            System.out.print(text);
+        }
+
+        void println(String line) {
+            System.out.println(line);
+        }
+
+        void flush() {
+            System.out.flush();
+        }
+    }
+
+    private static final class Buffered extends OutputSink {
+        private static final String LINE_SEPARATOR = System.lineSeparator();
+
+        private final WritableByteChannel channel;
+        private final ByteBuffer buffer;
+        private final CharsetEncoder encoder;
+
+        Buffered(WritableByteChannel channel, int bufferSize, Charset charset) {
+            this.channel = channel;
+            this.buffer = ByteBuffer.allocateDirect(bufferSize);
+            this.encoder = charset.newEncoder()
+                    .onMalformedInput(CodingErrorAction.REPLACE)
+                    .onUnmappableCharacter(CodingErrorAction.REPLACE);
+        }
+
+        void print(String text) {
+            CharBuffer chars = CharBuffer.wrap(text);
+            while (encoder.encode(chars, buffer, true) == CoderResult.OVERFLOW) drain();
+            encoder.reset();
+        }
+
+        void println(String line) {
+            print(line);
+            print(LINE_SEPARATOR);
+        }
+
+        void flush() {
+            if (buffer.position() > 0) drain();
+        }
+
+        private void drain() {
+            System.out.flush(); // keep anything already written through System.out in front of us
+            buffer.flip();
+            try {
+                while (buffer.hasRemaining()) channel.write(buffer);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            } finally {
+                buffer.clear();
+            }
+        }
+    }
+}
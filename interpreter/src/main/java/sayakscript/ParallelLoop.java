@@ -0,0 +1,190 @@
+package sayakscript;
+
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+// Runs prange loops on the common fork-join pool. The range is cut into contiguous chunks; each
+// chunk runs its iterations in order, as bytecode, on a worker interpreter with a private copy of
+// the frame and its own output buffer, and the buffers are replayed in chunk order so dekho output
+// comes out exactly as a sequential run would print it.
+//
+// That is only sound when iterations cannot observe each other. independent() accepts a body when
+// every variable it assigns is certainly assigned earlier in the same iteration wherever it is
+// read, and it has no bolo or cls; any other prange loop runs as an ordinary sequential loop.
+// Afterwards each assigned variable holds what the last iteration to assign it left there.
+final class ParallelLoop {
+    private static final int CHUNKS_PER_THREAD = 4;
+
+    private final Set<Integer> written = new HashSet<>();
+    private boolean shared;
+
+    private ParallelLoop() {}
+
+    // Also analyzes every prange loop nested in the body, so workers only ever read the result.
+    static boolean independent(ParallelForNode loop) {
+        if (!loop.analyzed) {
+            ParallelLoop analysis = new ParallelLoop();
+            analysis.written.add(loop.slot);
+            analysis.writes(loop.body);
+            Set<Integer> assigned = new HashSet<>();
+            assigned.add(loop.slot);
+            analysis.block(loop.body, assigned);
+            if (!analysis.shared) {
+                int[] slots = new int[analysis.written.size()];
+                int i = 0;
+                for (int slot : analysis.written) slots[i++] = slot;
+                loop.privateSlots = slots;
+            }
+            loop.analyzed = true;
+        }
+        return loop.privateSlots != null;
+    }
+
+    static void run(SayakScriptInterpreter interpreter, ParallelForNode loop) {
+        if (interpreter.governor() != null) {
+            // a governor counts on one thread, so under resource limits the loop runs sequentially
+            interpreter.run(BytecodeCompiler.compile(range(loop, loop.start, loop.end)));
+            return;
+        }
+        long iterations = (long) loop.end - loop.start + 1;
+        if (iterations <= 0) return;
+        Object[] frame = interpreter.frame();
+        long[] frameBits = interpreter.frameBits();
+        int count = (int) Math.min(iterations, (long) ForkJoinPool.getCommonPoolParallelism() * CHUNKS_PER_THREAD);
+        Chunk[] chunks = new Chunk[count];
+        for (int c = 0; c < count; c++) {
+            Object[] chunkFrame = frame.clone();
+            for (int slot : loop.privateSlots) chunkFrame[slot] = null;
+            SayakScriptInterpreter worker = interpreter.worker(chunkFrame, frameBits.clone(), new OutputSink.Captured());
+            int from = (int) (loop.start + iterations * c / count);
+            int to = (int) (loop.start + iterations * (c + 1) / count - 1);
+            chunks[c] = new Chunk(loop, from, to, worker);
+            chunks[c].fork();
+        }
+
+        // Emit output in order up to the first failing chunk, which stops the loop as it would
+        // sequentially; later chunks are cancelled and their work discarded.
+        RuntimeException error = null;
+        int last = count - 1;
+        for (int c = 0; c < count; c++) {
+            if (error != null) {
+                chunks[c].cancel(false);
+                chunks[c].quietlyJoin();
+                continue;
+            }
+            chunks[c].join();
+            ((OutputSink.Captured) chunks[c].worker.output()).writeTo(interpreter.output());
+            if (chunks[c].error != null) {
+                error = chunks[c].error;
+                last = c;
+            }
+        }
+        for (int slot : loop.privateSlots) {
+            for (int c = last; c >= 0; c--) {
+                Object[] chunkFrame = chunks[c].worker.frame();
+                if (chunkFrame[slot] != null) {
+                    frame[slot] = chunkFrame[slot];
+                    frameBits[slot] = chunks[c].worker.frameBits()[slot];
+                    break;
+                }
+            }
+        }
+        if (error != null) throw error;
+    }
+
+    private static final class Chunk extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        private final ParallelForNode loop;
+        private final int from, to;
+        final SayakScriptInterpreter worker;
+        RuntimeException error;
+
+        Chunk(ParallelForNode loop, int from, int to, SayakScriptInterpreter worker) {
+            this.loop = loop;
+            this.from = from;
+            this.to = to;
+            this.worker = worker;
+        }
+
+        @Override
+        protected void compute() {
+            try {
+                worker.run(BytecodeCompiler.compile(range(loop, from, to)));
+            } catch (RuntimeException e) {
+                error = e; // kept as is; join() would rethrow a copy with a different message
+            }
+        }
+    }
+
+    // The iterations from..to of loop as an ordinary sequential loop.
+    private static ForNode range(ParallelForNode loop, int from, int to) {
+        ForNode range = new ForNode(loop.varName, from, to, loop.body);
+        range.slot = loop.slot;
+        range.hoisted = loop.hoisted;
+        return range;
+    }
+
+    private void writes(ASTNode[] stmts) {
+        for (ASTNode stmt : stmts) {
+            if (stmt instanceof AssignNode) {
+                written.add(((AssignNode) stmt).slot);
+            } else if (stmt instanceof InputNode) {
+                written.add(((InputNode) stmt).slot);
+            } else if (stmt instanceof IfNode) {
+                writes(((IfNode) stmt).thenBlock);
+                writes(((IfNode) stmt).elseBlock);
+            } else if (stmt instanceof ForNode) {
+                written.add(((ForNode) stmt).slot);
+                writes(((ForNode) stmt).body);
+            }
+        }
+    }
+
+    // Walks stmts in execution order; assigned holds the slots this iteration has certainly set.
+    private Set<Integer> block(ASTNode[] stmts, Set<Integer> assigned) {
+        for (ASTNode stmt : stmts) assigned = statement(stmt, assigned);
+        return assigned;
+    }
+
+    private Set<Integer> statement(ASTNode node, Set<Integer> assigned) {
+        if (node instanceof AssignNode) {
+            reads(((AssignNode) node).expr, assigned);
+            assigned.add(((AssignNode) node).slot);
+        } else if (node instanceof PrintNode) {
+            reads(((PrintNode) node).expr, assigned);
+        } else if (node instanceof IfNode) {
+            IfNode ifNode = (IfNode) node;
+            reads(ifNode.condition, assigned);
+            Set<Integer> taken = block(ifNode.thenBlock, new HashSet<>(assigned));
+            taken.retainAll(block(ifNode.elseBlock, new HashSet<>(assigned)));
+            return taken;
+        } else if (node instanceof ForNode) {
+            ForNode forNode = (ForNode) node;
+            if (forNode instanceof ParallelForNode) independent((ParallelForNode) forNode);
+            if (forNode.start <= forNode.end) {
+                assigned.add(forNode.slot);
+                return block(forNode.body, assigned);
+            }
+        } else {
+            shared = true; // bolo consumes shared input, cls clears the shared screen
+        }
+        return assigned;
+    }
+
+    private void reads(ExprNode expr, Set<Integer> assigned) {
+        if (expr instanceof VarNode) {
+            int slot = ((VarNode) expr).slot;
+            if (written.contains(slot) && !assigned.contains(slot)) shared = true;
+        } else if (expr instanceof HoistedNode) {
+            reads(((HoistedNode) expr).expr, assigned);
+        } else if (expr instanceof ArrayNode) {
+            for (ExprNode element : ((ArrayNode) expr).elements) reads(element, assigned);
+        } else if (expr instanceof BinaryOpNode) {
+            reads(((BinaryOpNode) expr).left, assigned);
+            reads(((BinaryOpNode) expr).right, assigned);
+        }
+    }
+}
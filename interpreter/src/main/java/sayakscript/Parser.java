@@ -0,0 +1,278 @@
+package sayakscript;
+
+import java.util.ArrayList;
+
+// Recursive-descent parser over a Lexer's tokens. statement() parses one top-level statement at a
+// time, so the interpreter can run each statement before the next one is even read.
+final class Parser {
+    // What completeness() makes of the tokens so far.
+    static final int COMPLETE = 0, INCOMPLETE = 1, ELSE_OPEN = 2;
+
+    private final Lexer lexer;
+    private int pos;
+    private int elseless = -1; // just past the '}' of the last agar parsed without a warna
+
+    Parser(Lexer lexer) {
+        this.lexer = lexer;
+    }
+
+    static ASTNode[] parseAll(String code) {
+        Parser parser = new Parser(new Lexer(code));
+        ArrayList<ASTNode> statements = new ArrayList<>();
+        while (!parser.atEnd()) {
+            ASTNode stmt = parser.statement();
+            if (stmt != null) statements.add(stmt);
+        }
+        return statements.toArray(new ASTNode[0]);
+    }
+
+    boolean atEnd() {
+        return lexer.kind(pos) == Lexer.EOF;
+    }
+
+    // The next top-level statement, or null when the token there starts none and was skipped.
+    ASTNode statement() {
+        return parseStatement();
+    }
+
+    // For the REPL, which gets a block a line at a time: parses every statement left to tell
+    // whether the lines so far hold whole statements (COMPLETE, even one with a syntax error),
+    // stop partway through an agar or for that a later line could finish (INCOMPLETE), or end
+    // with an agar's '}' that a warna on the next line would continue (ELSE_OPEN). The parser is
+    // left where it was.
+    int completeness() {
+        int start = pos;
+        int first = Lexer.EOF;
+        try {
+            while (!atEnd()) {
+                first = lexer.kind(pos);
+                statement();
+            }
+            return first == Lexer.KW_AGAR && elseless == pos ? ELSE_OPEN : COMPLETE;
+        } catch (RuntimeException e) {
+            boolean block = first == Lexer.KW_AGAR || first == Lexer.KW_FOR;
+            return block && atEnd() ? INCOMPLETE : COMPLETE;
+        } finally {
+            pos = start;
+        }
+    }
+
+    // Lets the lexer forget the tokens of every statement parsed so far.
+    void discard() {
+        lexer.discard(pos);
+    }
+
+    // Parses one statement and stamps it with the line it starts on.
+    private ASTNode parseStatement() {
+        if (lexer.kind(pos) == Lexer.EOF) return null;
+        int line = lexer.line(pos);
+        ASTNode stmt = parseStatementAt();
+        if (stmt != null) stmt.line = line;
+        return stmt;
+    }
+
+    private ASTNode parseStatementAt() {
+        switch (lexer.kind(pos)) {
+            case Lexer.EOF:
+                return null;
+            case Lexer.KW_LE:
+                if (lexer.kind(pos + 1) == Lexer.KW_SAYAK) return parseAssignment();
+                break;
+            case Lexer.KW_DEKHO:
+                return parsePrint();
+            case Lexer.KW_BOLO:
+                return parseInput();
+            case Lexer.KW_AGAR:
+                return parseIf();
+            case Lexer.KW_FOR:
+                if (lexer.kind(pos + 1) == Lexer.KW_SAYAK) return parseFor();
+                break;
+            case Lexer.KW_CLS:
+                pos++;
+                if (lexer.kind(pos) != Lexer.SEMI) throw new RuntimeException("Missing semicolon after cls");
+                pos++;
+                return new ClearNode();
+        }
+        if (lexer.contains(pos, '=')) {
+            throw new RuntimeException("Wrong syntax: Missing 'le sayak'. Correct syntax: 'le sayak " + lexer.text(pos) + ";'");
+        }
+        pos++;
+        return null;
+    }
+
+    private AssignNode parseAssignment() {
+        pos += 2; // Skip "le sayak"
+        if (lexer.kind(pos) == Lexer.EOF) throw new RuntimeException("Incomplete assignment");
+        String varName = lexer.text(pos++);
+        if (lexer.kind(pos) != Lexer.ASSIGN) throw new RuntimeException("Missing '=' in assignment");
+        pos++; // Skip "="
+        ExprNode expr = parseExpression();
+        if (lexer.kind(pos) != Lexer.SEMI) throw new RuntimeException("Missing semicolon after assignment");
+        pos++; // Skip ";"
+        return new AssignNode(varName, expr);
+    }
+
+    private PrintNode parsePrint() {
+        pos++; // Skip "dekho"
+        if (lexer.kind(pos) != Lexer.LPAREN) throw new RuntimeException("Missing '(' after dekho");
+        pos++; // Skip "("
+        ExprNode expr = parseExpression();
+        if (lexer.kind(pos) != Lexer.RPAREN) throw new RuntimeException("Missing ')' after dekho expression");
+        pos++; // Skip ")"
+        if (lexer.kind(pos) != Lexer.SEMI) throw new RuntimeException("Missing semicolon after dekho");
+        pos++; // Skip ";"
+        return new PrintNode(expr);
+    }
+
+    private InputNode parseInput() {
+        pos++; // Skip "bolo"
+        if (lexer.kind(pos) == Lexer.EOF) throw new RuntimeException("Missing variable for input");
+        String varName = lexer.text(pos++);
+        String file = null;
+        if (lexer.kind(pos) == Lexer.KW_IN) { // bolo x in "data.csv";
+            pos++;
+            if (lexer.kind(pos) != Lexer.STRING) throw new RuntimeException("Missing file name after 'in' in bolo");
+            file = lexer.stringValue(pos++);
+        }
+        if (lexer.kind(pos) != Lexer.SEMI) throw new RuntimeException("Missing semicolon after bolo");
+        pos++; // Skip ";"
+        return new InputNode(varName, file);
+    }
+
+    private IfNode parseIf() {
+        pos++; // Skip "agar"
+        if (lexer.kind(pos) != Lexer.LPAREN) throw new RuntimeException("Missing '(' in agar");
+        pos++; // Skip "("
+        ExprNode condition = parseExpression();
+        if (lexer.kind(pos) != Lexer.RPAREN) throw new RuntimeException("Missing ')' in agar");
+        pos++; // Skip ")"
+        if (lexer.kind(pos) != Lexer.LBRACE) throw new RuntimeException("Missing '{' in agar");
+        pos++; // Skip "{"
+        ASTNode[] thenBlock = parseBlock();
+        if (lexer.kind(pos) == Lexer.EOF) throw new RuntimeException("Missing '}' in agar");
+        pos++; // Skip "}"
+        ASTNode[] elseBlock = new ASTNode[0];
+        if (lexer.kind(pos) == Lexer.KW_WARNA) {
+            pos++; // Skip "warna"
+            if (lexer.kind(pos) != Lexer.LBRACE) throw new RuntimeException("Missing '{' after warna");
+            pos++; // Skip "{"
+            elseBlock = parseBlock();
+            if (lexer.kind(pos) == Lexer.EOF) throw new RuntimeException("Missing '}' after warna");
+            pos++; // Skip "}"
+        } else {
+            elseless = pos;
+        }
+        return new IfNode(condition, thenBlock, elseBlock);
+    }
+
+    private ForNode parseFor() {
+        pos += 2; // Skip "for sayak"
+        if (lexer.kind(pos) == Lexer.EOF) throw new RuntimeException("Missing variable in for loop");
+        String varName = lexer.text(pos++);
+        if (lexer.kind(pos) != Lexer.KW_IN) throw new RuntimeException("Missing 'in' in for loop");
+        pos++; // Skip "in"
+        boolean parallel = lexer.kind(pos) == Lexer.KW_PRANGE;
+        if (!parallel && lexer.kind(pos) != Lexer.KW_RANGE) throw new RuntimeException("Missing 'range' in for loop");
+        pos++; // Skip "range" or "prange"
+        if (lexer.kind(pos) != Lexer.LPAREN) throw new RuntimeException("Missing '(' in range");
+        pos++; // Skip "("
+        if (!lexer.isInteger(pos)) throw new RuntimeException("Missing start number in range");
+        int start = lexer.intValue(pos++);
+        if (lexer.kind(pos) != Lexer.KW_TO) throw new RuntimeException("Missing 'to' in range");
+        pos++; // Skip "to"
+        if (!lexer.isInteger(pos)) throw new RuntimeException("Missing end number in range");
+        int end = lexer.intValue(pos++);
+        if (lexer.kind(pos) != Lexer.RPAREN) throw new RuntimeException("Missing ')' in range");
+        pos++; // Skip ")"
+        if (lexer.kind(pos) != Lexer.LBRACE) throw new RuntimeException("Missing '{' in for loop");
+        pos++; // Skip "{"
+        ASTNode[] body = parseBlock();
+        if (lexer.kind(pos) == Lexer.EOF) throw new RuntimeException("Missing '}' in for loop");
+        pos++; // Skip "}"
+        return parallel ? new ParallelForNode(varName, start, end, body) : new ForNode(varName, start, end, body);
+    }
+
+    private ASTNode[] parseBlock() {
+        ArrayList<ASTNode> block = new ArrayList<>();
+        while (lexer.kind(pos) != Lexer.EOF && lexer.kind(pos) != Lexer.RBRACE) {
+            ASTNode stmt = parseStatement();
+            if (stmt != null) block.add(stmt);
+        }
+        return block.toArray(new ASTNode[0]);
+    }
+
+    private ExprNode parseExpression() {
+        return parseComparison();
+    }
+
+    private ExprNode parseComparison() {
+        ExprNode left = parseAddition();
+        while (true) {
+            String op;
+            switch (lexer.kind(pos)) {
+                case Lexer.GT: op = ">"; break;
+                case Lexer.LT: op = "<"; break;
+                case Lexer.GE: op = ">="; break;
+                case Lexer.LE: op = "<="; break;
+                case Lexer.EQ: op = "=="; break;
+                default: return left;
+            }
+            pos++;
+            ExprNode right = parseAddition();
+            left = new BinaryOpNode(op, left, right);
+        }
+    }
+
+    private ExprNode parseAddition() {
+        ExprNode left = parseMultiplication();
+        while (lexer.kind(pos) == Lexer.PLUS) {
+            pos++;
+            ExprNode right = parseMultiplication();
+            left = new BinaryOpNode("+", left, right);
+        }
+        return left;
+    }
+
+    private ExprNode parseMultiplication() {
+        ExprNode left = parseFactor();
+        while (lexer.kind(pos) == Lexer.STAR) {
+            pos++;
+            ExprNode right = parseFactor();
+            left = new BinaryOpNode("*", left, right);
+        }
+        return left;
+    }
+
+    private ExprNode parseFactor() {
+        if (lexer.kind(pos) == Lexer.EOF) throw new RuntimeException("Incomplete expression");
+        int token = pos++;
+        switch (lexer.kind(token)) {
+            case Lexer.LBRACKET: {
+                ArrayList<ExprNode> elements = new ArrayList<>();
+                if (lexer.kind(pos) != Lexer.EOF && lexer.kind(pos) != Lexer.RBRACKET) {
+                    do {
+                        elements.add(parseExpression());
+                        if (lexer.kind(pos) == Lexer.COMMA) {
+                            pos++; // Skip comma
+                        } else {
+                            break;
+                        }
+                    } while (lexer.kind(pos) != Lexer.EOF && lexer.kind(pos) != Lexer.RBRACKET);
+                }
+                if (lexer.kind(pos) != Lexer.RBRACKET) {
+                    throw new RuntimeException("Missing ']' in array literal");
+                }
+                pos++; // Skip "]"
+                return new ArrayNode(elements);
+            }
+            case Lexer.INT:
+            case Lexer.INT_OVERFLOW:
+                return new NumberNode(lexer.intValue(token));
+            case Lexer.FLOAT:
+                return new NumberNode(lexer.floatValue(token));
+            case Lexer.STRING:
+                return new StringNode(lexer.stringValue(token));
+        }
+        return new VarNode(lexer.text(token));
+    }
+}
@@ -0,0 +1,245 @@
+package sayakscript;
+
+import java.io.PrintStream;
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.Map;
+import java.util.TreeMap;
+import javax.management.Attribute;
+import javax.management.AttributeList;
+import javax.management.AttributeNotFoundException;
+import javax.management.DynamicMBean;
+import javax.management.JMException;
+import javax.management.MBeanAttributeInfo;
+import javax.management.MBeanInfo;
+import javax.management.MBeanOperationInfo;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import javax.management.ReflectionException;
+
+// Counts executions and time per statement node for --profile, plus what eval allocates. The
+// tree walker calls in only while a profiler is installed, so without one the cost is a null
+// check per statement. Times are inclusive (a loop's time covers its body); the report derives
+// each node's self time from its children. Top-level statements are also committed as JFR events
+// (see StatementEvent), and the running totals are readable over JMX as sayakscript:type=Profiler.
+final class Profiler {
+    private static final String[] TYPES = {"le sayak", "dekho", "bolo", "agar", "for", "prange", "cls"};
+
+    private static final class Stats {
+        final ASTNode node;
+        long count, nanos;
+
+        Stats(ASTNode node) {
+            this.node = node;
+        }
+    }
+
+    private final Map<ASTNode, Stats> stats = new IdentityHashMap<>();
+    private final ArrayList<Stats> topLevel = new ArrayList<>();
+    private int depth;
+    private long statements, totalNanos;
+    private long arrays, strings, boxes;
+
+    // The per-node Stats is returned so exit() does not need a second lookup.
+    Object enter(ASTNode node) {
+        Stats s = stats.get(node);
+        if (s == null) {
+            s = new Stats(node);
+            stats.put(node, s);
+            if (depth == 0) topLevel.add(s);
+        }
+        depth++;
+        return s;
+    }
+
+    void exit(Object handle, long nanos) {
+        Stats s = (Stats) handle;
+        s.count++;
+        s.nanos += nanos;
+        statements++;
+        if (--depth == 0) totalNanos += nanos;
+    }
+
+    boolean atTopLevel() {
+        return depth == 0;
+    }
+
+    // eval built an array from n computed elements; mixed contents box their numbers.
+    void array(Object[] tags, int n) {
+        arrays++;
+        int ints = 0, floats = 0;
+        for (int i = 0; i < n; i++) {
+            if (tags[i] == Values.INT) ints++;
+            else if (tags[i] == Values.FLOAT) floats++;
+        }
+        if (ints != n && floats != n) boxes += ints + floats;
+    }
+
+    void string() {
+        strings++;
+    }
+
+    void boxed() {
+        boxes++;
+    }
+
+    void report(PrintStream out) {
+        out.printf("Profile: %d statements executed in %.3f ms%n", statements, totalNanos / 1e6);
+        out.println();
+        out.println("By statement (times inclusive of nested statements):");
+        out.printf("%6s %10s %12s %12s  %s%n", "line", "count", "total ms", "self ms", "statement");
+        for (Stats s : topLevel) tree(out, s, 0);
+
+        Map<Integer, long[]> lines = new TreeMap<>(); // line -> {count, self nanos}
+        long[][] types = new long[TYPES.length][2];
+        for (Stats s : stats.values()) {
+            long self = self(s);
+            long[] line = lines.computeIfAbsent(s.node.line, k -> new long[2]);
+            line[0] += s.count;
+            line[1] += self;
+            long[] type = types[type(s.node)];
+            type[0] += s.count;
+            type[1] += self;
+        }
+        out.println();
+        out.println("By line (self time):");
+        out.printf("%6s %10s %12s%n", "line", "count", "self ms");
+        for (Map.Entry<Integer, long[]> e : lines.entrySet()) {
+            out.printf("%6d %10d %12.3f%n", e.getKey(), e.getValue()[0], e.getValue()[1] / 1e6);
+        }
+        out.println();
+        out.println("By statement type (self time):");
+        out.printf("%-10s %10s %12s %12s %14s%n", "type", "count", "self ms", "ns/exec", "execs/s");
+        for (int t = 0; t < TYPES.length; t++) {
+            long count = types[t][0], nanos = types[t][1];
+            if (count == 0) continue;
+            out.printf("%-10s %10d %12.3f %12.1f %14.0f%n", TYPES[t], count, nanos / 1e6,
+                    (double) nanos / count, nanos == 0 ? 0.0 : count * 1e9 / nanos);
+        }
+        out.println();
+        out.printf("Allocated in eval: %d arrays, %d strings, %d boxed numbers%n", arrays, strings, boxes);
+    }
+
+    private void tree(PrintStream out, Stats s, int indent) {
+        out.printf("%6d %10d %12.3f %12.3f  %s%s%n", s.node.line, s.count, s.nanos / 1e6, self(s) / 1e6,
+                "  ".repeat(indent), describe(s.node));
+        for (ASTNode child : children(s.node)) {
+            Stats c = stats.get(child);
+            if (c != null) tree(out, c, indent + 1);
+        }
+    }
+
+    private long self(Stats s) {
+        long self = s.nanos;
+        for (ASTNode child : children(s.node)) {
+            Stats c = stats.get(child);
+            if (c != null) self -= c.nanos;
+        }
+        return Math.max(self, 0);
+    }
+
+    private static ASTNode[] children(ASTNode node) {
+        if (node instanceof ForNode) return ((ForNode) node).body;
+        if (node instanceof IfNode) {
+            IfNode ifNode = (IfNode) node;
+            ASTNode[] both = new ASTNode[ifNode.thenBlock.length + ifNode.elseBlock.length];
+            System.arraycopy(ifNode.thenBlock, 0, both, 0, ifNode.thenBlock.length);
+            System.arraycopy(ifNode.elseBlock, 0, both, ifNode.thenBlock.length, ifNode.elseBlock.length);
+            return both;
+        }
+        return new ASTNode[0];
+    }
+
+    private static int type(ASTNode node) {
+        if (node instanceof AssignNode) return 0;
+        if (node instanceof PrintNode) return 1;
+        if (node instanceof InputNode) return 2;
+        if (node instanceof IfNode) return 3;
+        if (node instanceof ParallelForNode) return 5;
+        if (node instanceof ForNode) return 4;
+        return 6;
+    }
+
+    static String describe(ASTNode node) {
+        if (node instanceof AssignNode) return "le sayak " + ((AssignNode) node).varName;
+        if (node instanceof InputNode) {
+            InputNode input = (InputNode) node;
+            return "bolo " + input.varName + (input.file != null ? " in \"" + input.file + "\"" : "");
+        }
+        if (node instanceof ForNode) {
+            ForNode forNode = (ForNode) node;
+            return "for " + forNode.varName + " in " + (node instanceof ParallelForNode ? "prange" : "range")
+                    + "(" + forNode.start + " to " + forNode.end + ")";
+        }
+        return TYPES[type(node)];
+    }
+
+    // Publishes the totals over JMX; a second profiler in the same JVM replaces the first.
+    void register() {
+        try {
+            ObjectName name = new ObjectName("sayakscript:type=Profiler");
+            MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+            if (server.isRegistered(name)) server.unregisterMBean(name);
+            server.registerMBean(new Metrics(), name);
+        } catch (JMException e) {
+            System.err.println("Profiler: cannot register MBean (" + e.getMessage() + ")");
+        }
+    }
+
+    // Read-only view of the counters. They are plain fields written by the interpreter thread, so
+    // a reading may lag the script slightly.
+    private final class Metrics implements DynamicMBean {
+        private final String[] names = {"Statements", "TotalNanos", "Arrays", "Strings", "Boxes"};
+
+        @Override
+        public Object getAttribute(String attribute) throws AttributeNotFoundException {
+            switch (attribute) {
+                case "Statements": return statements;
+                case "TotalNanos": return totalNanos;
+                case "Arrays": return arrays;
+                case "Strings": return strings;
+                case "Boxes": return boxes;
+                default: throw new AttributeNotFoundException(attribute);
+            }
+        }
+
+        @Override
+        public void setAttribute(Attribute attribute) throws AttributeNotFoundException {
+            throw new AttributeNotFoundException(attribute.getName() + " is read-only");
+        }
+
+        @Override
+        public AttributeList getAttributes(String[] attributes) {
+            AttributeList list = new AttributeList();
+            for (String attribute : attributes) {
+                try {
+                    list.add(new Attribute(attribute, getAttribute(attribute)));
+                } catch (AttributeNotFoundException e) {
+                    // left out, as the DynamicMBean contract asks
+                }
+            }
+            return list;
+        }
+
+        @Override
+        public AttributeList setAttributes(AttributeList attributes) {
+            return new AttributeList();
+        }
+
+        @Override
+        public Object invoke(String actionName, Object[] params, String[] signature) throws ReflectionException {
+            throw new ReflectionException(new NoSuchMethodException(actionName)); // there are no operations
+        }
+
+        @Override
+        public MBeanInfo getMBeanInfo() {
+            MBeanAttributeInfo[] attributes = new MBeanAttributeInfo[names.length];
+            for (int i = 0; i < names.length; i++) {
+                attributes[i] = new MBeanAttributeInfo(names[i], "long", names[i], true, false, false);
+            }
+            return new MBeanInfo(Profiler.class.getName(), "SayakScript profiler counters", attributes, null,
+                    new MBeanOperationInfo[0], null);
+        }
+    }
+}
@@ -0,0 +1,56 @@
+package sayakscript;
+
+import java.util.ArrayList;
+
+// Statements that have been parsed, optimized and resolved against a slot table, with bytecode for
+// each compiled up front. Running a Program on the VM never changes it, so one instance can be
+// cached and shared by any number of sessions; everything mutable lives in the interpreter that
+// runs it.
+final class Program {
+    final ASTNode[] statements;
+    final Resolver resolver; // the slot table the statements were resolved against
+    final RuntimeException error; // parse error after the last statement, raised once they have run
+    private final Bytecode[] compiled;
+
+    Program(ASTNode[] statements, Resolver resolver, RuntimeException error) {
+        this(statements, new Bytecode[statements.length], resolver, error);
+    }
+
+    // compiled holds bytecode the caller already has for each statement, or null where it has none.
+    Program(ASTNode[] statements, Bytecode[] compiled, Resolver resolver, RuntimeException error) {
+        this.statements = statements;
+        this.resolver = resolver;
+        this.error = error;
+        this.compiled = compiled;
+        for (int i = 0; i < statements.length; i++) {
+            if (compiled[i] == null) compiled[i] = BytecodeCompiler.compile(statements[i]);
+        }
+    }
+
+    // Compiles a whole script against its own slot table. A parse error does not stop the
+    // statements before it from running, just as when parsing and running are interleaved.
+    static Program compile(String source) {
+        Parser parser = new Parser(new Lexer(source));
+        Optimizer optimizer = new Optimizer();
+        Resolver resolver = new Resolver();
+        ArrayList<ASTNode> statements = new ArrayList<>();
+        RuntimeException error = null;
+        try {
+            while (!parser.atEnd()) {
+                ASTNode stmt = parser.statement();
+                if (stmt == null) continue;
+                for (ASTNode optimized : optimizer.optimize(stmt)) {
+                    resolver.resolve(optimized);
+                    statements.add(optimized);
+                }
+            }
+        } catch (RuntimeException e) {
+            error = e;
+        }
+        return new Program(statements.toArray(new ASTNode[0]), resolver, error);
+    }
+
+    Bytecode compiled(int i) {
+        return compiled[i];
+    }
+}
@@ -0,0 +1,60 @@
+package sayakscript;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+// Bounded LRU map from source text to its parsed Program, so executing the same snippet again
+// skips lexing and parsing. Keys are the full text, so distinct sources can never collide.
+// Synchronized, so the session server's sessions can share one.
+final class ProgramCache {
+    static final int DEFAULT_CAPACITY = 256;
+
+    private final int capacity;
+    private final LinkedHashMap<String, Program> entries;
+    private long hits, misses, evictions;
+
+    ProgramCache(int capacity) {
+        this.capacity = capacity;
+        this.entries = new LinkedHashMap<String, Program>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Program> eldest) {
+                if (size() <= ProgramCache.this.capacity) return false;
+                evictions++;
+                return true;
+            }
+        };
+    }
+
+    synchronized Program get(String source) {
+        Program program = entries.get(source);
+        if (program == null) misses++;
+        else hits++;
+        return program;
+    }
+
+    synchronized void put(String source, Program program) {
+        entries.put(source, program);
+    }
+
+    synchronized int size() {
+        return entries.size();
+    }
+
+    synchronized long hits() {
+        return hits;
+    }
+
+    synchronized long misses() {
+        return misses;
+    }
+
+    synchronized long evictions() {
+        return evictions;
+    }
+
+    @Override
+    public synchronized String toString() {
+        return "Program cache: " + hits + " hits, " + misses + " misses, " + evictions + " evictions, "
+                + entries.size() + "/" + capacity + " entries";
+    }
+}
@@ -0,0 +1,393 @@
+package sayakscript;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.zip.CRC32;
+import java.util.zip.CRC32C;
+
+// A compiled Program saved next to its script (program.sayak -> program.sayakc) so later runs
+// skip the lexer, parser, optimizer and resolver. The file holds the optimized, resolved tree:
+//
+//   "SYKC"  u2 format version  source check: UTF-8 length (8 bytes), CRC32C and CRC32 (4 bytes each)
+//   constant pool: count, then per entry a kind byte and its value (string, int or float)
+//   slot table: count, then the pool index of each variable name, in slot order
+//   parse error: 0, or 1 + pool index of its message
+//   statements: count, then each statement as a kind byte, its line and its operands
+//
+// Counts, indexes and ints are unsigned LEB128 varints (ints zigzag-encoded); floats are their
+// raw 4 bytes. The file is read through a memory mapping. One written for other source text, by
+// another format version, or damaged is simply rebuilt from the source. The source check uses two
+// CRCs rather than a cryptographic digest because both are JVM intrinsics that need no security
+// provider: a cold SHA-256 alone costs more than parsing a small script. The file is a cache next
+// to the script, not a security boundary.
+final class ProgramFile {
+    static final int VERSION = 2;
+
+    private static final byte[] MAGIC = {'S', 'Y', 'K', 'C'};
+
+    private static final int K_STRING = 1, K_INT = 2, K_FLOAT = 3;
+
+    private static final int S_ASSIGN = 1, S_PRINT = 2, S_INPUT = 3, S_IF = 4, S_FOR = 5, S_PRANGE = 6, S_CLEAR = 7, S_READ = 8;
+    private static final int E_INT = 1, E_FLOAT = 2, E_STRING = 3, E_VAR = 4, E_ARRAY = 5, E_BINARY = 6, E_HOISTED = 7;
+    private static final String[] OPERATORS = {"+", "*", ">", "<", ">=", "<=", "=="}; // by BinaryOpNode op
+
+    private ProgramFile() {}
+
+    static Path pathFor(Path script) {
+        return script.resolveSibling(script.getFileName() + "c");
+    }
+
+    // The program for source: read from file if that was compiled from the same text, otherwise
+    // compiled now and saved there for next time (when the file can be written).
+    static Program load(String source, Path file) {
+        byte[] hash = check(source);
+        if (Files.isRegularFile(file)) {
+            try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+                MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+                Program program = new Reader(buffer).read(hash);
+                if (program != null) return program;
+            } catch (IOException | RuntimeException e) {
+                // unreadable or damaged: compile again and overwrite it
+            }
+        }
+        Program program = Program.compile(source);
+        try {
+            Path temp = file.resolveSibling(file.getFileName() + "." + ProcessHandle.current().pid() + ".tmp");
+            try {
+                Files.write(temp, write(program, hash));
+                Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            } finally {
+                Files.deleteIfExists(temp);
+            }
+        } catch (IOException e) {
+            // the program still runs, it just is not saved
+        }
+        return program;
+    }
+
+    static byte[] check(String source) {
+        byte[] utf8 = source.getBytes(StandardCharsets.UTF_8);
+        CRC32C crc32c = new CRC32C();
+        crc32c.update(utf8);
+        CRC32 crc32 = new CRC32();
+        crc32.update(utf8);
+        return ByteBuffer.allocate(16).putLong(utf8.length).putInt((int) crc32c.getValue()).putInt((int) crc32.getValue()).array();
+    }
+
+    static byte[] write(Program program, byte[] hash) {
+        return new Writer().write(program, hash);
+    }
+
+    private static final class Writer {
+        private final ByteArrayOutputStream pool = new ByteArrayOutputStream();
+        private final Map<Object, Integer> poolIndex = new HashMap<>();
+        private final ByteArrayOutputStream body = new ByteArrayOutputStream();
+
+        byte[] write(Program program, byte[] hash) {
+            Resolver resolver = program.resolver;
+            varint(body, resolver.slotCount());
+            for (int slot = 0; slot < resolver.slotCount(); slot++) varint(body, constant(resolver.name(slot)));
+            varint(body, program.error == null ? 0 : 1 + constant(String.valueOf(program.error.getMessage())));
+            varint(body, program.statements.length);
+            for (ASTNode stmt : program.statements) statement(stmt);
+
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream(MAGIC.length + 2 + hash.length + pool.size() + body.size() + 5);
+            bytes.writeBytes(MAGIC);
+            bytes.write(VERSION >> 8);
+            bytes.write(VERSION);
+            bytes.writeBytes(hash);
+            varint(bytes, poolIndex.size());
+            bytes.writeBytes(pool.toByteArray());
+            bytes.writeBytes(body.toByteArray());
+            return bytes.toByteArray();
+        }
+
+        private void statement(ASTNode node) {
+            if (node instanceof AssignNode) {
+                AssignNode assign = (AssignNode) node;
+                header(S_ASSIGN, node);
+                varint(body, assign.slot);
+                expression(assign.expr);
+            } else if (node instanceof PrintNode) {
+                header(S_PRINT, node);
+                expression(((PrintNode) node).expr);
+            } else if (node instanceof InputNode) {
+                InputNode input = (InputNode) node;
+                header(input.file != null ? S_READ : S_INPUT, node);
+                varint(body, input.slot);
+                if (input.file != null) varint(body, constant(input.file));
+            } else if (node instanceof IfNode) {
+                IfNode ifNode = (IfNode) node;
+                header(S_IF, node);
+                expression(ifNode.condition);
+                block(ifNode.thenBlock);
+                block(ifNode.elseBlock);
+            } else if (node instanceof ForNode) {
+                ForNode forNode = (ForNode) node;
+                header(node instanceof ParallelForNode ? S_PRANGE : S_FOR, node);
+                varint(body, forNode.slot);
+                varint(body, zigzag(forNode.start));
+                varint(body, zigzag(forNode.end));
+                block(forNode.body);
+                // after the body, so the reader has met every HoistedNode these slots refer to
+                varint(body, forNode.hoisted.length);
+                for (HoistedNode hoisted : forNode.hoisted) varint(body, hoisted.slot);
+            } else {
+                header(S_CLEAR, node);
+            }
+        }
+
+        private void header(int kind, ASTNode node) {
+            body.write(kind);
+            varint(body, node.line);
+        }
+
+        private void block(ASTNode[] stmts) {
+            varint(body, stmts.length);
+            for (ASTNode stmt : stmts) statement(stmt);
+        }
+
+        private void expression(ExprNode expr) {
+            if (expr instanceof NumberNode) {
+                NumberNode number = (NumberNode) expr;
+                body.write(number.tag == Values.INT ? E_INT : E_FLOAT);
+                varint(body, constant(number.value));
+            } else if (expr instanceof StringNode) {
+                body.write(E_STRING);
+                varint(body, constant(((StringNode) expr).value));
+            } else if (expr instanceof VarNode) {
+                body.write(E_VAR);
+                varint(body, ((VarNode) expr).slot);
+            } else if (expr instanceof ArrayNode) {
+                ArrayList<ExprNode> elements = ((ArrayNode) expr).elements;
+                body.write(E_ARRAY);
+                varint(body, elements.size());
+                for (ExprNode element : elements) expression(element);
+            } else if (expr instanceof BinaryOpNode) {
+                // saved generic: the tree walker specializes operators again as it runs
+                BinaryOpNode binOp = (BinaryOpNode) expr;
+                body.write(E_BINARY);
+                body.write(binOp.op);
+                expression(binOp.left);
+                expression(binOp.right);
+            } else {
+                HoistedNode hoisted = (HoistedNode) expr;
+                body.write(E_HOISTED);
+                varint(body, hoisted.slot);
+                expression(hoisted.expr);
+            }
+        }
+
+        private int constant(Object value) {
+            // keyed by class too, so 1 and 1.0 (equal as numbers only after boxing) stay apart
+            Object key = Arrays.asList(value.getClass(), value);
+            Integer index = poolIndex.get(key);
+            if (index != null) return index;
+            if (value instanceof String) {
+                byte[] utf8 = ((String) value).getBytes(StandardCharsets.UTF_8);
+                pool.write(K_STRING);
+                varint(pool, utf8.length);
+                pool.writeBytes(utf8);
+            } else if (value instanceof Integer) {
+                pool.write(K_INT);
+                varint(pool, zigzag((Integer) value));
+            } else {
+                int bits = Float.floatToRawIntBits((Float) value);
+                pool.write(K_FLOAT);
+                pool.write(bits >>> 24);
+                pool.write(bits >>> 16);
+                pool.write(bits >>> 8);
+                pool.write(bits);
+            }
+            index = poolIndex.size();
+            poolIndex.put(key, index);
+            return index;
+        }
+
+        private static int zigzag(int value) {
+            return (value << 1) ^ (value >> 31);
+        }
+
+        private static void varint(ByteArrayOutputStream out, int value) {
+            while ((value & ~0x7F) != 0) {
+                out.write((value & 0x7F) | 0x80);
+                value >>>= 7;
+            }
+            out.write(value);
+        }
+    }
+
+    private static final class Reader {
+        private final ByteBuffer in;
+        private Object[] constants;
+        private String[] names;
+        private final Map<Integer, HoistedNode> hoisted = new HashMap<>();
+
+        Reader(ByteBuffer in) {
+            this.in = in;
+        }
+
+        // Null if the file belongs to other source text or another format version.
+        Program read(byte[] hash) {
+            byte[] magic = new byte[MAGIC.length];
+            in.get(magic);
+            int version = (in.get() & 0xFF) << 8 | (in.get() & 0xFF);
+            byte[] sourceHash = new byte[hash.length];
+            in.get(sourceHash);
+            if (!Arrays.equals(magic, MAGIC) || version != VERSION || !Arrays.equals(sourceHash, hash)) return null;
+
+            constants = new Object[varint()];
+            for (int i = 0; i < constants.length; i++) constants[i] = poolEntry();
+            Resolver resolver = new Resolver();
+            names = new String[varint()];
+            for (int slot = 0; slot < names.length; slot++) {
+                names[slot] = (String) constants[varint()];
+                if (resolver.slot(names[slot]) != slot) throw new IllegalStateException("Duplicate slot name");
+            }
+            int error = varint();
+            ASTNode[] statements = new ASTNode[varint()];
+            for (int i = 0; i < statements.length; i++) statements[i] = statement();
+            if (in.hasRemaining()) throw new IllegalStateException("Trailing bytes");
+            return new Program(statements, resolver, error == 0 ? null : new RuntimeException((String) constants[error - 1]));
+        }
+
+        private Object poolEntry() {
+            switch (in.get()) {
+                case K_STRING: {
+                    byte[] utf8 = new byte[varint()];
+                    in.get(utf8);
+                    return new String(utf8, StandardCharsets.UTF_8);
+                }
+                case K_INT: return unzigzag(varint());
+                case K_FLOAT: return Float.intBitsToFloat(in.getInt());
+                default: throw new IllegalStateException("Bad constant");
+            }
+        }
+
+        private ASTNode statement() {
+            int kind = in.get();
+            int line = varint();
+            ASTNode node;
+            switch (kind) {
+                case S_ASSIGN: {
+                    int slot = varint();
+                    AssignNode assign = new AssignNode(names[slot], expression());
+                    assign.slot = slot;
+                    node = assign;
+                    break;
+                }
+                case S_PRINT:
+                    node = new PrintNode(expression());
+                    break;
+                case S_INPUT: {
+                    int slot = varint();
+                    InputNode input = new InputNode(names[slot]);
+                    input.slot = slot;
+                    node = input;
+                    break;
+                }
+                case S_READ: {
+                    int slot = varint();
+                    InputNode input = new InputNode(names[slot], (String) constants[varint()]);
+                    input.slot = slot;
+                    node = input;
+                    break;
+                }
+                case S_IF:
+                    node = new IfNode(expression(), block(), block());
+                    break;
+                case S_FOR:
+                case S_PRANGE: {
+                    int slot = varint();
+                    int start = unzigzag(varint()), end = unzigzag(varint());
+                    ASTNode[] body = block();
+                    ForNode forNode = kind == S_PRANGE
+                            ? new ParallelForNode(names[slot], start, end, body)
+                            : new ForNode(names[slot], start, end, body);
+                    forNode.slot = slot;
+                    forNode.hoisted = new HoistedNode[varint()];
+                    for (int i = 0; i < forNode.hoisted.length; i++) {
+                        forNode.hoisted[i] = hoisted.get(varint());
+                        if (forNode.hoisted[i] == null) throw new IllegalStateException("Unknown hoisted slot");
+                    }
+                    node = forNode;
+                    break;
+                }
+                case S_CLEAR:
+                    node = new ClearNode();
+                    break;
+                default:
+                    throw new IllegalStateException("Bad statement");
+            }
+            node.line = line;
+            return node;
+        }
+
+        private ASTNode[] block() {
+            ASTNode[] stmts = new ASTNode[varint()];
+            for (int i = 0; i < stmts.length; i++) stmts[i] = statement();
+            return stmts;
+        }
+
+        private ExprNode expression() {
+            switch (in.get()) {
+                case E_INT:
+                case E_FLOAT:
+                    return new NumberNode((Number) constants[varint()]);
+                case E_STRING:
+                    return new StringNode((String) constants[varint()]);
+                case E_VAR: {
+                    int slot = varint();
+                    VarNode var = new VarNode(names[slot]);
+                    var.slot = slot;
+                    return var;
+                }
+                case E_ARRAY: {
+                    int n = varint();
+                    ArrayList<ExprNode> elements = new ArrayList<>(n);
+                    for (int i = 0; i < n; i++) elements.add(expression());
+                    return new ArrayNode(elements);
+                }
+                case E_BINARY: {
+                    String operator = OPERATORS[in.get()];
+                    return new BinaryOpNode(operator, expression(), expression());
+                }
+                case E_HOISTED: {
+                    int slot = varint();
+                    HoistedNode node = new HoistedNode(expression(), names[slot]);
+                    node.slot = slot;
+                    hoisted.put(slot, node);
+                    return node;
+                }
+                default:
+                    throw new IllegalStateException("Bad expression");
+            }
+        }
+
+        private int varint() {
+            int value = 0;
+            for (int shift = 0; ; shift += 7) {
+                byte b = in.get();
+                value |= (b & 0x7F) << shift;
+                if (b >= 0) return value;
+                if (shift >= 28) throw new IllegalStateException("Bad varint");
+            }
+        }
+
+        private static int unzigzag(int value) {
+            return (value >>> 1) ^ -(value & 1);
+        }
+    }
+}
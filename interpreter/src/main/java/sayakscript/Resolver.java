@@ -0,0 +1,69 @@
+package sayakscript;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Map;
+
+// Assigns every variable name a frame slot and stamps it onto the nodes that read or write it.
+// The table only grows, so slots handed out for earlier REPL lines stay valid.
+final class Resolver {
+    private final Map<String, Integer> slots = new HashMap<>();
+    private final ArrayList<String> names = new ArrayList<>();
+
+    int slotCount() {
+        return names.size();
+    }
+
+    String name(int slot) {
+        return names.get(slot);
+    }
+
+    int slot(String varName) {
+        Integer slot = slots.get(varName);
+        if (slot == null) {
+            slot = names.size();
+            names.add(varName);
+            slots.put(varName, slot);
+        }
+        return slot;
+    }
+
+    void resolve(ASTNode node) {
+        if (node instanceof AssignNode) {
+            AssignNode assign = (AssignNode) node;
+            resolve(assign.expr);
+            assign.slot = slot(assign.varName);
+        } else if (node instanceof PrintNode) {
+            resolve(((PrintNode) node).expr);
+        } else if (node instanceof InputNode) {
+            InputNode input = (InputNode) node;
+            input.slot = slot(input.varName);
+        } else if (node instanceof IfNode) {
+            IfNode ifNode = (IfNode) node;
+            resolve(ifNode.condition);
+            for (ASTNode stmt : ifNode.thenBlock) resolve(stmt);
+            for (ASTNode stmt : ifNode.elseBlock) resolve(stmt);
+        } else if (node instanceof ForNode) {
+            ForNode forNode = (ForNode) node;
+            forNode.slot = slot(forNode.varName);
+            for (ASTNode stmt : forNode.body) resolve(stmt);
+        }
+    }
+
+    private void resolve(ExprNode expr) {
+        if (expr instanceof VarNode) {
+            VarNode var = (VarNode) expr;
+            var.slot = slot(var.varName);
+        } else if (expr instanceof ArrayNode) {
+            for (ExprNode element : ((ArrayNode) expr).elements) resolve(element);
+        } else if (expr instanceof BinaryOpNode) {
+            BinaryOpNode binOp = (BinaryOpNode) expr;
+            resolve(binOp.left);
+            resolve(binOp.right);
+        } else if (expr instanceof HoistedNode) {
+            HoistedNode hoisted = (HoistedNode) expr;
+            resolve(hoisted.expr);
+            hoisted.slot = slot(hoisted.varName);
+        }
+    }
+}
@@ -0,0 +1,1009 @@
+package sayakscript;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Scanner;
+
+abstract class ASTNode {
+    int line; // where the statement starts in its source, from 1
+}
+class AssignNode extends ASTNode implements ExprParent {
+    String varName;
+    int slot = -1;
+    ExprNode expr;
+    AssignNode(String varName, ExprNode expr) {
+        this.varName = varName;
+        this.expr = expr;
+        expr.parent = this;
+    }
+    public void replaceChild(ExprNode oldChild, ExprNode newChild) {
+        if (expr == oldChild) expr = newChild;
+    }
+}
+class PrintNode extends ASTNode implements ExprParent {
+    ExprNode expr;
+    PrintNode(ExprNode expr) {
+        this.expr = expr;
+        expr.parent = this;
+    }
+    public void replaceChild(ExprNode oldChild, ExprNode newChild) {
+        if (expr == oldChild) expr = newChild;
+    }
+}
+class InputNode extends ASTNode {
+    String varName;
+    String file; // bolo x in "file": the whole file, read into an array
+    int slot = -1;
+    InputNode(String varName) {
+        this.varName = varName;
+    }
+    InputNode(String varName, String file) {
+        this.varName = varName;
+        this.file = file;
+    }
+}
+class IfNode extends ASTNode implements ExprParent {
+    ExprNode condition;
+    ASTNode[] thenBlock;
+    ASTNode[] elseBlock;
+    IfNode(ExprNode condition, ASTNode[] thenBlock, ASTNode[] elseBlock) {
+        this.condition = condition;
+        this.thenBlock = thenBlock;
+        this.elseBlock = elseBlock;
+        condition.parent = this;
+    }
+    public void replaceChild(ExprNode oldChild, ExprNode newChild) {
+        if (condition == oldChild) condition = newChild;
+    }
+}
+class ForNode extends ASTNode {
+    String varName;
+    int slot = -1;
+    int start, end;
+    ASTNode[] body;
+    HoistedNode[] hoisted = new HoistedNode[0]; // loop-invariant caches to reset on entry
+    ForNode(String varName, int start, int end, ASTNode[] body) {
+        this.varName = varName;
+        this.start = start;
+        this.end = end;
+        this.body = body;
+    }
+}
+// for sayak i in prange(a to b): a ForNode whose iterations may run concurrently (see ParallelLoop).
+class ParallelForNode extends ForNode {
+    boolean analyzed;
+    int[] privateSlots; // variables each iteration assigns before reading; null if iterations share state
+    ParallelForNode(String varName, int start, int end, ASTNode[] body) {
+        super(varName, start, end, body);
+    }
+}
+class ClearNode extends ASTNode {}
+
+// Implemented by nodes that own expressions, so an expression can swap itself out for a rewrite.
+interface ExprParent {
+    void replaceChild(ExprNode oldChild, ExprNode newChild);
+}
+
+abstract class ExprNode {
+    ExprParent parent;
+    <T extends ExprNode> T replace(T replacement) {
+        replacement.parent = parent;
+        if (parent != null) parent.replaceChild(this, replacement);
+        return replacement;
+    }
+}
+class NumberNode extends ExprNode {
+    Number value;
+    Object tag;
+    long bits;
+    NumberNode(Number value) {
+        this.value = value;
+        this.tag = Values.tag(value);
+        this.bits = Values.bits(value);
+    }
+}
+class StringNode extends ExprNode {
+    String value;
+    StringNode(String value) {
+        this.value = value;
+    }
+}
+class VarNode extends ExprNode {
+    String varName;
+    int slot = -1;
+    VarNode(String varName) {
+        this.varName = varName;
+    }
+}
+class ArrayNode extends ExprNode implements ExprParent {
+    ArrayList<ExprNode> elements;
+    ArrayValue constant; // built once when every element is a literal, then shared by every evaluation
+    ArrayNode(ArrayList<ExprNode> elements) {
+        this.elements = elements;
+        for (ExprNode element : elements) element.parent = this;
+        updateConstant();
+    }
+    void updateConstant() {
+        int n = elements.size();
+        Object[] tags = new Object[n];
+        long[] bits = new long[n];
+        for (int i = 0; i < n; i++) {
+            ExprNode element = elements.get(i);
+            if (element instanceof NumberNode) {
+                tags[i] = ((NumberNode) element).tag;
+                bits[i] = ((NumberNode) element).bits;
+            } else if (element instanceof StringNode) {
+                tags[i] = ((StringNode) element).value;
+            } else if (element instanceof ArrayNode && ((ArrayNode) element).constant != null) {
+                tags[i] = ((ArrayNode) element).constant;
+            } else {
+                constant = null;
+                return;
+            }
+        }
+        constant = ArrayValue.of(tags, bits, 0, n);
+    }
+    public void replaceChild(ExprNode oldChild, ExprNode newChild) {
+        for (int i = 0; i < elements.size(); i++) {
+            if (elements.get(i) == oldChild) elements.set(i, newChild);
+        }
+    }
+}
+class BinaryOpNode extends ExprNode implements ExprParent {
+    static final int ADD = 0, MUL = 1, GT = 2, LT = 3, GE = 4, LE = 5, EQ = 6;
+    String operator;
+    int op;
+    ExprNode left, right;
+    boolean generic; // set once a specialization was abandoned, so it is not retried
+    BinaryOpNode(String operator, ExprNode left, ExprNode right) {
+        this.operator = operator;
+        this.op = opcode(operator);
+        this.left = left;
+        this.right = right;
+        left.parent = this;
+        right.parent = this;
+    }
+    public void replaceChild(ExprNode oldChild, ExprNode newChild) {
+        if (left == oldChild) left = newChild;
+        if (right == oldChild) right = newChild;
+    }
+    private static int opcode(String operator) {
+        switch (operator) {
+            case "+": return ADD;
+            case "*": return MUL;
+            case ">": return GT;
+            case "<": return LT;
+            case ">=": return GE;
+            case "<=": return LE;
+            case "==": return EQ;
+            default: return -1;
+        }
+    }
+    // Applies the operator to operands the tree walker has just evaluated, returning the result's
+    // tag and leaving its payload in the interpreter (see Values). A generic node then rewrites
+    // itself for the operand tags it saw; the variants override this with their own fast path.
+    Object apply(SayakScriptInterpreter in, Object left, long leftBits, Object right, long rightBits) {
+        Object result = in.binary(this, left, leftBits, right, rightBits);
+        specialize(left, right);
+        return result;
+    }
+    // Rewrites this generic node into the variant for the operand tags it just saw.
+    private void specialize(Object leftTag, Object rightTag) {
+        if (generic) return;
+        boolean ints = leftTag == Values.INT && rightTag == Values.INT;
+        if (!ints && !Values.isFloatPair(leftTag, rightTag)) return;
+        switch (op) {
+            case ADD: replace(ints ? new IntAddNode(left, right) : new FloatAddNode(left, right)); break;
+            case MUL: replace(ints ? new IntMulNode(left, right) : new FloatMulNode(left, right)); break;
+            case GT: case LT: case GE: case LE: case EQ:
+                replace(ints ? new IntCompareNode(operator, left, right) : new FloatCompareNode(operator, left, right));
+                break;
+        }
+    }
+    // Called by a specialized node whose type guard failed: falls back to a generic node for good.
+    BinaryOpNode deoptimize() {
+        BinaryOpNode node = new BinaryOpNode(operator, left, right);
+        node.generic = true;
+        return replace(node);
+    }
+    static boolean compare(int op, float left, float right) {
+        switch (op) {
+            case GT: return left > right;
+            case LT: return left < right;
+            case GE: return left >= right;
+            case LE: return left <= right;
+            default: return left == right;
+        }
+    }
+}
+// A loop-invariant expression evaluated at most once per entry into its loop; the value is kept
+// in a hidden frame slot that the owning ForNode clears before it starts iterating.
+class HoistedNode extends ExprNode implements ExprParent {
+    ExprNode expr;
+    String varName;
+    int slot = -1;
+    HoistedNode(ExprNode expr, String varName) {
+        this.expr = expr;
+        this.varName = varName;
+        expr.parent = this;
+    }
+    public void replaceChild(ExprNode oldChild, ExprNode newChild) {
+        if (expr == oldChild) expr = newChild;
+    }
+}
+// The specialized variants below each guard on the operand tags they were made for and run just
+// their own operation; when the guard fails they deoptimize and the generic path takes over.
+class IntAddNode extends BinaryOpNode {
+    IntAddNode(ExprNode left, ExprNode right) {
+        super("+", left, right);
+    }
+    @Override
+    Object apply(SayakScriptInterpreter in, Object left, long leftBits, Object right, long rightBits) {
+        if (left == Values.INT && right == Values.INT) return in.result(Values.INT, (int) leftBits + (int) rightBits);
+        return in.binary(deoptimize(), left, leftBits, right, rightBits);
+    }
+}
+class FloatAddNode extends BinaryOpNode {
+    FloatAddNode(ExprNode left, ExprNode right) {
+        super("+", left, right);
+    }
+    @Override
+    Object apply(SayakScriptInterpreter in, Object left, long leftBits, Object right, long rightBits) {
+        if (Values.isFloatPair(left, right)) {
+            return in.result(Values.FLOAT, Values.floatBits(Values.toFloat(left, leftBits) + Values.toFloat(right, rightBits)));
+        }
+        return in.binary(deoptimize(), left, leftBits, right, rightBits);
+    }
+}
+class IntMulNode extends BinaryOpNode {
+    IntMulNode(ExprNode left, ExprNode right) {
+        super("*", left, right);
+    }
+    @Override
+    Object apply(SayakScriptInterpreter in, Object left, long leftBits, Object right, long rightBits) {
+        if (left == Values.INT && right == Values.INT) return in.result(Values.INT, (int) leftBits * (int) rightBits);
+        return in.binary(deoptimize(), left, leftBits, right, rightBits);
+    }
+}
+class FloatMulNode extends BinaryOpNode {
+    FloatMulNode(ExprNode left, ExprNode right) {
+        super("*", left, right);
+    }
+    @Override
+    Object apply(SayakScriptInterpreter in, Object left, long leftBits, Object right, long rightBits) {
+        if (Values.isFloatPair(left, right)) {
+            return in.result(Values.FLOAT, Values.floatBits(Values.toFloat(left, leftBits) * Values.toFloat(right, rightBits)));
+        }
+        return in.binary(deoptimize(), left, leftBits, right, rightBits);
+    }
+}
+class IntCompareNode extends BinaryOpNode {
+    IntCompareNode(String operator, ExprNode left, ExprNode right) {
+        super(operator, left, right);
+    }
+    @Override
+    Object apply(SayakScriptInterpreter in, Object left, long leftBits, Object right, long rightBits) {
+        if (left == Values.INT && right == Values.INT) {
+            return in.result(Values.INT, compare(op, (float) (int) leftBits, (float) (int) rightBits) ? 1 : 0);
+        }
+        return in.binary(deoptimize(), left, leftBits, right, rightBits);
+    }
+}
+class FloatCompareNode extends BinaryOpNode {
+    FloatCompareNode(String operator, ExprNode left, ExprNode right) {
+        super(operator, left, right);
+    }
+    @Override
+    Object apply(SayakScriptInterpreter in, Object left, long leftBits, Object right, long rightBits) {
+        if (Values.isNumber(left) && Values.isNumber(right)) {
+            return in.result(Values.INT, compare(op, Values.toFloat(left, leftBits), Values.toFloat(right, rightBits)) ? 1 : 0);
+        }
+        return in.binary(deoptimize(), left, leftBits, right, rightBits);
+    }
+}
+
+class SayakScriptInterpreter {
+    private final Resolver resolver;
+    private Object[] frame = new Object[16];
+    private long[] frameBits = new long[16];
+    private long bits; // payload of the value last returned by eval
+    private Scanner scanner; // opened on System.in by the first bolo unless setInput chose a source
+    private BulkInput batchInput; // --batch-input: no prompts, and stdin is read without the Scanner
+    private boolean treeWalker;
+    private final BytecodeVM vm = new BytecodeVM(this);
+    private Optimizer optimizer = new Optimizer();
+    private OutputSink out = OutputSink.console();
+    private ProgramCache cache = new ProgramCache(ProgramCache.DEFAULT_CAPACITY);
+    private Profiler profiler; // only set for --profile, which runs the tree walker
+    private Governor governor; // only set for resource limits or time slicing
+    private Lexer block; // REPL lines of a block that is still open
+    private int blockLines, blockState;
+
+    SayakScriptInterpreter() {
+        this.resolver = new Resolver();
+    }
+
+    // A worker for one chunk of a parallel loop: shares the (already resolved) slot table but runs
+    // on its own frame and writes to its own sink.
+    private SayakScriptInterpreter(Resolver resolver, Object[] frame, long[] frameBits, OutputSink out) {
+        this.resolver = resolver;
+        this.frame = frame;
+        this.frameBits = frameBits;
+        this.out = out;
+        this.optimizer = null;
+        this.cache = null;
+    }
+
+    SayakScriptInterpreter worker(Object[] frame, long[] frameBits, OutputSink out) {
+        return new SayakScriptInterpreter(resolver, frame, frameBits, out);
+    }
+
+    // A session for running compiled programs that share program's slot table, with its own
+    // variables, input and output; nothing it does is visible to any other session.
+    static SayakScriptInterpreter session(Program program, Scanner input, OutputSink out) {
+        int slots = program.resolver.slotCount();
+        SayakScriptInterpreter session = new SayakScriptInterpreter(program.resolver, new Object[slots], new long[slots], out);
+        session.scanner = input;
+        return session;
+    }
+
+    void setInput(Scanner input) {
+        this.scanner = input;
+    }
+
+    void setBatchInput(BulkInput input) {
+        this.batchInput = input;
+    }
+
+    void run(Bytecode code) {
+        vm.run(code);
+    }
+
+    void setTreeWalker(boolean treeWalker) {
+        this.treeWalker = treeWalker;
+    }
+
+    void setOutput(OutputSink out) {
+        this.out = out;
+    }
+
+    OutputSink output() {
+        return out;
+    }
+
+    void setOptimizing(boolean optimizing) {
+        optimizer = optimizing ? new Optimizer() : null;
+    }
+
+    Optimizer optimizer() {
+        return optimizer;
+    }
+
+    void setCacheSize(int capacity) {
+        cache = capacity > 0 ? new ProgramCache(capacity) : null;
+    }
+
+    ProgramCache cache() {
+        return cache;
+    }
+
+    void setProfiler(Profiler profiler) {
+        this.profiler = profiler;
+    }
+
+    Profiler profiler() {
+        return profiler;
+    }
+
+    void setGovernor(Governor governor) {
+        this.governor = governor;
+    }
+
+    Governor governor() {
+        return governor;
+    }
+
+    // Snippets that ran to completion are cached, so executing the same text again goes straight
+    // to the resolved statements (and their compiled bytecode) without lexing or parsing.
+    void execute(String code) {
+        if (cache == null) {
+            execute(new Lexer(code), null, null);
+            return;
+        }
+        Program program = cache.get(code);
+        if (program != null) {
+            execute(program);
+            return;
+        }
+        cache.put(code, executeToCache(new Lexer(code)));
+    }
+
+    // REPL input, one line at a time. Lines are appended to the lexer of the block they belong
+    // to, which scans only the new text, and the block is parsed again to see whether it is done
+    // (see Parser.completeness): it stays open while it stops partway through an agar or for, and
+    // while it ends with an agar whose warna could still come on the next line (see endBlock).
+    // Once complete it is parsed for good, from the tokens already scanned, and run. Returns true
+    // while a block is open, so the REPL can prompt for more.
+    boolean executeLine(String line) {
+        endBlock(line);
+        if (governor != null) governor.start();
+        if (block == null) {
+            Program program = cache != null ? cache.get(line) : null;
+            if (program != null) {
+                execute(program);
+                return false;
+            }
+            block = new Lexer();
+            blockLines = 0;
+        } else {
+            block.append("\n");
+        }
+        block.append(line);
+        blockLines++;
+        blockState = new Parser(block).completeness();
+        if (blockState != Parser.COMPLETE) return true;
+        Lexer source = block;
+        block = null;
+        if (cache == null || blockLines > 1) {
+            execute(source, null, null);
+            return false;
+        }
+        cache.put(line, executeToCache(source));
+        return false;
+    }
+
+    // Runs the open block if all it waits for is a warna, and next, the REPL's next line, does
+    // not start with one. The REPL calls this before executeLine, so an error in the block is
+    // reported without losing the line after it.
+    void endBlock(String next) {
+        if (block == null || blockState != Parser.ELSE_OPEN || new Lexer(next).kind(0) == Lexer.KW_WARNA) return;
+        if (governor != null) governor.start();
+        Lexer source = block;
+        block = null;
+        execute(source, null, null);
+    }
+
+    // Runs a whole script file, streaming it through the lexer so parsing and execution proceed
+    // statement by statement and tokens of finished statements are dropped as we go.
+    void executeFile(Path path) throws IOException {
+        try (MappedSourceReader reader = new MappedSourceReader(path)) {
+            execute(new Lexer(reader), null, null);
+        }
+    }
+
+    // Runs source and returns the statements it ran as a Program to cache, with the bytecode they
+    // ran as, so nothing is compiled twice.
+    private Program executeToCache(Lexer source) {
+        ArrayList<ASTNode> parsed = new ArrayList<>();
+        ArrayList<Bytecode> compiled = new ArrayList<>();
+        execute(source, parsed, compiled);
+        return new Program(parsed.toArray(new ASTNode[0]), compiled.toArray(new Bytecode[0]), resolver, null);
+    }
+
+    private void execute(Lexer source, ArrayList<ASTNode> parsed, ArrayList<Bytecode> compiled) {
+        Parser parser = new Parser(source);
+        try {
+            while (!parser.atEnd()) {
+                ASTNode stmt = parser.statement();
+                if (stmt != null) {
+                    if (optimizer == null) {
+                        run(stmt, parsed, compiled);
+                    } else {
+                        for (ASTNode optimized : optimizer.optimize(stmt)) run(optimized, parsed, compiled);
+                    }
+                }
+                parser.discard();
+            }
+        } finally {
+            out.flush();
+        }
+    }
+
+    private void run(ASTNode stmt, ArrayList<ASTNode> parsed, ArrayList<Bytecode> compiled) {
+        if (governor != null) governor.step();
+        resolver.resolve(stmt);
+        Bytecode code = treeWalker ? null : BytecodeCompiler.compile(stmt);
+        if (parsed != null) {
+            parsed.add(stmt);
+            compiled.add(code);
+        }
+        if (frame.length < resolver.slotCount()) {
+            int size = Math.max(frame.length * 2, resolver.slotCount());
+            frame = Arrays.copyOf(frame, size);
+            frameBits = Arrays.copyOf(frameBits, size);
+        }
+        if (treeWalker) interpret(stmt);
+        else vm.run(code);
+    }
+
+    // Runs a program resolved against this interpreter's slot table: one it cached itself, whose
+    // slots were assigned when first parsed (the frame has only grown since), or, for a session,
+    // a compiled program whose slot table the session was created with.
+    void execute(Program program) {
+        execute(program, null);
+    }
+
+    // As execute(Program), but statements that compiled carries a JVM method for run that way.
+    void execute(Program program, CompiledScript compiled) {
+        try {
+            ASTNode[] statements = program.statements;
+            for (int i = 0; i < statements.length; i++) {
+                if (governor != null) governor.step();
+                if (compiled != null && compiled.run(i, frame, frameBits, out)) continue;
+                if (treeWalker) interpret(statements[i]);
+                else vm.run(program.compiled(i));
+            }
+            if (program.error != null) throw program.error;
+        } finally {
+            out.flush();
+        }
+    }
+
+    private void interpret(ASTNode node) {
+        if (profiler == null) {
+            step(node);
+            return;
+        }
+        StatementEvent event = null;
+        if (profiler.atTopLevel()) {
+            event = new StatementEvent();
+            event.begin();
+        }
+        Object stats = profiler.enter(node);
+        long start = System.nanoTime();
+        try {
+            step(node);
+        } finally {
+            profiler.exit(stats, System.nanoTime() - start);
+            if (event != null && event.shouldCommit()) {
+                event.line = node.line;
+                event.statement = Profiler.describe(node);
+                event.commit();
+            }
+        }
+    }
+
+    private void step(ASTNode node) {
+        if (node instanceof AssignNode) {
+            AssignNode assign = (AssignNode) node;
+            Object value = eval(assign.expr);
+            if (governor != null) governor.store(frame[assign.slot], value);
+            frame[assign.slot] = value;
+            frameBits[assign.slot] = bits;
+        } else if (node instanceof PrintNode) {
+            PrintNode print = (PrintNode) node;
+            Object tag = eval(print.expr);
+            print(tag, bits);
+        } else if (node instanceof InputNode) {
+            InputNode input = (InputNode) node;
+            Object value = input.file != null ? readFile(input.file) : readInput(input.varName);
+            if (profiler != null && (value instanceof Integer || value instanceof Float)) profiler.boxed();
+            if (governor != null) governor.store(frame[input.slot], Values.tag(value));
+            frame[input.slot] = Values.tag(value);
+            frameBits[input.slot] = Values.bits(value);
+        } else if (node instanceof IfNode) {
+            IfNode ifNode = (IfNode) node;
+            Object tag = eval(ifNode.condition);
+            if (Values.isTrue(tag, bits)) {
+                for (ASTNode stmt : ifNode.thenBlock) interpret(stmt);
+            } else {
+                for (ASTNode stmt : ifNode.elseBlock) interpret(stmt);
+            }
+        } else if (node instanceof ParallelForNode && ParallelLoop.independent((ParallelForNode) node)) {
+            ParallelLoop.run(this, (ParallelForNode) node);
+        } else if (node instanceof ForNode) {
+            ForNode forNode = (ForNode) node;
+            for (HoistedNode hoisted : forNode.hoisted) {
+                if (governor != null) governor.store(frame[hoisted.slot], null);
+                frame[hoisted.slot] = null;
+            }
+            for (int i = forNode.start; i <= forNode.end; i++) {
+                if (governor != null) {
+                    governor.step();
+                    governor.store(frame[forNode.slot], Values.INT);
+                }
+                frame[forNode.slot] = Values.INT;
+                frameBits[forNode.slot] = i;
+                for (ASTNode stmt : forNode.body) {
+                    interpret(stmt);
+                }
+            }
+        } else if (node instanceof ClearNode) {
+            clearScreen();
+        }
+    }
+
+    // Returns the value's tag and leaves its payload in bits (see Values).
+    private Object eval(ExprNode expr) {
+        if (expr instanceof NumberNode) {
+            NumberNode number = (NumberNode) expr;
+            bits = number.bits;
+            return number.tag;
+        } else if (expr instanceof StringNode) {
+            return ((StringNode) expr).value;
+        } else if (expr instanceof VarNode) {
+            int slot = ((VarNode) expr).slot;
+            Object tag = frame[slot];
+            if (tag == null) throw undefined(slot);
+            bits = frameBits[slot];
+            return tag;
+        } else if (expr instanceof HoistedNode) {
+            HoistedNode hoisted = (HoistedNode) expr;
+            Object tag = frame[hoisted.slot];
+            if (tag != null) {
+                bits = frameBits[hoisted.slot];
+                return tag;
+            }
+            tag = eval(hoisted.expr);
+            if (governor != null) governor.store(null, tag);
+            frame[hoisted.slot] = tag;
+            frameBits[hoisted.slot] = bits;
+            return tag;
+        } else if (expr instanceof ArrayNode) {
+            ArrayNode arrayNode = (ArrayNode) expr;
+            int n = arrayNode.elements.size();
+            if (governor != null) governor.array(n);
+            if (arrayNode.constant != null) return arrayNode.constant;
+            Object[] tags = new Object[n];
+            long[] elementBits = new long[n];
+            for (int i = 0; i < n; i++) {
+                tags[i] = eval(arrayNode.elements.get(i));
+                elementBits[i] = bits;
+            }
+            if (profiler != null) profiler.array(tags, n);
+            return ArrayValue.of(tags, elementBits, 0, n);
+        } else if (expr instanceof BinaryOpNode) {
+            BinaryOpNode binOp = (BinaryOpNode) expr;
+            Object left = eval(binOp.left);
+            long leftBits = bits;
+            Object right = eval(binOp.right);
+            return binOp.apply(this, left, leftBits, right, bits);
+        }
+        return null;
+    }
+
+    // The result of a BinaryOpNode variant's fast path: leaves bits as eval does and returns tag.
+    Object result(Object tag, long bits) {
+        this.bits = bits;
+        return tag;
+    }
+
+    // Any operator on any operands, as the generic BinaryOpNode applies it.
+    Object binary(BinaryOpNode binOp, Object left, long leftBits, Object right, long rightBits) {
+        switch (binOp.op) {
+            case BinaryOpNode.ADD:
+                if (left == Values.INT && right == Values.INT) {
+                    bits = (int) leftBits + (int) rightBits;
+                    return Values.INT;
+                } else if (Values.isNumber(left) && Values.isNumber(right)) {
+                    bits = Values.floatBits(Values.toFloat(left, leftBits) + Values.toFloat(right, rightBits));
+                    return Values.FLOAT;
+                }
+                if (profiler != null) profiler.string();
+                Object text = Values.concat(left, leftBits, right, rightBits);
+                if (governor != null) governor.string(text);
+                return text;
+            case BinaryOpNode.MUL:
+                Values.requireMultipliable(left, right);
+                if (left == Values.INT && right == Values.INT) {
+                    bits = (int) leftBits * (int) rightBits;
+                    return Values.INT;
+                }
+                bits = Values.floatBits(Values.toFloat(left, leftBits) * Values.toFloat(right, rightBits));
+                return Values.FLOAT;
+            case BinaryOpNode.GT:
+            case BinaryOpNode.LT:
+            case BinaryOpNode.GE:
+            case BinaryOpNode.LE:
+            case BinaryOpNode.EQ:
+                Values.requireNumbers(left, right);
+                bits = BinaryOpNode.compare(binOp.op, Values.toFloat(left, leftBits), Values.toFloat(right, rightBits)) ? 1 : 0;
+                return Values.INT;
+            default:
+                throw new RuntimeException("Unknown operator: " + binOp.operator);
+        }
+    }
+
+    Object[] frame() {
+        return frame;
+    }
+
+    long[] frameBits() {
+        return frameBits;
+    }
+
+    String variableName(int slot) {
+        return resolver.name(slot);
+    }
+
+    RuntimeException undefined(int slot) {
+        return new RuntimeException("Variable '" + resolver.name(slot) + "' not defined");
+    }
+
+    void print(Object tag, long bits) {
+        if (tag != null) out.println(Values.toString(tag, bits));
+        else throw new RuntimeException("Expression cannot be evaluated");
+    }
+
+    Object readInput(String varName) {
+        if (batchInput == null) {
+            out.print("Enter input for " + varName + ": ");
+            out.flush();
+            if (scanner == null) scanner = new Scanner(System.in);
+        }
+        if (governor != null) governor.suspend();
+        Object value;
+        try {
+            value = batchInput != null ? batchInput.next() : parseInput(scanner.nextLine());
+        } finally {
+            if (governor != null) governor.resume();
+        }
+        if (governor != null && value instanceof String) governor.string(value);
+        return value;
+    }
+
+    // What bolo makes of a line: a float when it has a '.', else an int, or failing that the text.
+    static Object parseInput(String in) {
+        try {
+            if (in.contains(".")) {
+                return Float.parseFloat(in);
+            } else {
+                return Integer.parseInt(in);
+            }
+        } catch (NumberFormatException e) {
+            return in;
+        }
+    }
+
+    ArrayValue readFile(String file) {
+        ArrayValue array = BulkInput.array(Paths.get(file));
+        if (governor != null) governor.array(array.length());
+        return array;
+    }
+
+    void clearScreen() {
+        out.flush();
+        try {
+            if (System.getProperty("os.name").contains("Windows")) {
+                new ProcessBuilder("cmd", "/c", "cls").inheritIO().start().waitFor();
+            } else {
+                out.print("\033[H\033[2J");
+                out.flush();
+            }
+        } catch (Exception e) {
+            out.println("Error clearing screen: " + e.getMessage());
+        }
+    }
+
+    private static final String USAGE = "Usage: SayakScriptInterpreter [--mode=vm|--mode=tree|--mode=aot] [--aot-cache=DIR] [--aot-report]"
+            + " [--precompiled] [--profile] [--no-optimize] [--optimizer-report] [--cache-size=N] [--cache-report] [--buffered-output] [--batch-input]"
+            + " [--max-steps=N] [--max-time=MS] [--max-array=N] [--max-string=N] [--max-values=N] [--serve=PORT [--slice-ms=MS]] [script.sayak]";
+
+    public static void main(String[] args) {
+        SayakScriptInterpreter interpreter = new SayakScriptInterpreter();
+        boolean optimizerReport = false;
+        boolean cacheReport = false;
+        boolean aot = false;
+        boolean aotReport = false;
+        boolean profile = false;
+        boolean precompiled = false;
+        Path aotCache = null;
+        int cacheSize = ProgramCache.DEFAULT_CAPACITY;
+        int servePort = -1;
+        long[] limits = {Governor.UNLIMITED, Governor.UNLIMITED, Governor.UNLIMITED, Governor.UNLIMITED, Governor.UNLIMITED};
+        boolean limited = false;
+        long sliceMillis = 0;
+        boolean batchInput = false;
+        String script = null;
+        for (String arg : args) {
+            if (arg.equals("--mode=tree")) {
+                interpreter.setTreeWalker(true);
+                aot = false;
+            } else if (arg.equals("--mode=vm")) {
+                interpreter.setTreeWalker(false);
+                aot = false;
+            } else if (arg.equals("--mode=aot")) {
+                interpreter.setTreeWalker(false);
+                aot = true;
+            } else if (arg.startsWith("--aot-cache=")) {
+                aotCache = Paths.get(arg.substring("--aot-cache=".length()));
+            } else if (arg.equals("--aot-report")) {
+                aotReport = true;
+            } else if (arg.equals("--precompiled")) {
+                precompiled = true;
+            } else if (arg.equals("--profile")) {
+                profile = true;
+            } else if (arg.equals("--no-optimize")) {
+                interpreter.setOptimizing(false);
+            } else if (arg.equals("--optimizer-report")) {
+                optimizerReport = true;
+            } else if (arg.startsWith("--cache-size=")) {
+                cacheSize = Integer.parseInt(arg.substring("--cache-size=".length()));
+                interpreter.setCacheSize(cacheSize);
+            } else if (arg.equals("--cache-report")) {
+                cacheReport = true;
+            } else if (arg.equals("--buffered-output")) {
+                interpreter.setOutput(OutputSink.buffered());
+            } else if (arg.equals("--batch-input")) {
+                batchInput = true;
+            } else if (arg.startsWith("--serve=")) {
+                servePort = Integer.parseInt(arg.substring("--serve=".length()));
+            } else if (limit(arg) >= 0) {
+                limits[limit(arg)] = Long.parseLong(arg.substring(arg.indexOf('=') + 1));
+                limited = true;
+            } else if (arg.startsWith("--slice-ms=")) {
+                sliceMillis = Long.parseLong(arg.substring("--slice-ms=".length()));
+            } else if (!arg.startsWith("--") && script == null) {
+                script = arg;
+            } else {
+                System.out.println("Unknown option: " + arg);
+                System.out.println(USAGE);
+                return;
+            }
+        }
+        if (cacheReport && script != null) {
+            System.out.println("--cache-report needs the prompt: scripts are parsed once and never use the line cache");
+            System.out.println(USAGE);
+            return;
+        }
+        if (sliceMillis > 0 && servePort < 0) {
+            System.out.println("--slice-ms needs --serve: time slices are shared between server sessions");
+            System.out.println(USAGE);
+            return;
+        }
+
+        Governor governor = null;
+        if (limited || sliceMillis > 0) {
+            TimeSlicer slicer = sliceMillis > 0 ? new TimeSlicer(sliceMillis, Runtime.getRuntime().availableProcessors()) : null;
+            governor = new Governor(limits[0], limits[1], limits[2], limits[3], limits[4], slicer);
+            // Compiled classes never call the governor, so governed scripts skip --mode=aot and run
+            // on the VM. prange loops are handled in ParallelLoop.run, which runs them sequentially
+            // whenever a governor is installed.
+            aot = false;
+            interpreter.setGovernor(governor);
+        }
+
+        if (servePort >= 0) {
+            try {
+                new SessionServer(servePort, cacheSize, governor).serve();
+            } catch (IOException e) {
+                System.err.println("Error: cannot serve on port " + servePort + " (" + e.getMessage() + ")");
+                System.exit(1);
+            }
+            return;
+        }
+
+        if (profile) {
+            // every statement has to pass through interpret() to be timed, so profiling runs the tree walker
+            interpreter.setTreeWalker(true);
+            aot = false;
+            Profiler profiler = new Profiler();
+            profiler.register();
+            interpreter.setProfiler(profiler);
+        }
+
+        // at the prompt, stdin holds the lines being typed, so there bolo keeps reading interactively
+        if (script != null && batchInput) interpreter.setBatchInput(new BulkInput(System.in));
+
+        if (script != null && (aot || precompiled)) {
+            try {
+                runProgram(interpreter, Paths.get(script), precompiled, aot, aotCache, aotReport);
+            } catch (IOException e) {
+                System.err.println("Error: cannot read " + script + " (" + e.getClass().getSimpleName() + ")");
+                System.exit(1);
+            } catch (Exception e) {
+                System.err.println("Error: " + e.getMessage());
+                printProfile(interpreter);
+                System.exit(1);
+            }
+            printProfile(interpreter);
+            return;
+        }
+
+        if (script != null) {
+            interpreter.setOutput(OutputSink.buffered());
+            try {
+                interpreter.executeFile(Paths.get(script));
+            } catch (IOException e) {
+                System.err.println("Error: cannot read " + script + " (" + e.getClass().getSimpleName() + ")");
+                System.exit(1);
+            } catch (Exception e) {
+                System.err.println("Error: " + e.getMessage());
+                printProfile(interpreter);
+                System.exit(1);
+            }
+            if (optimizerReport) printOptimizerReport(interpreter);
+            printProfile(interpreter);
+            return;
+        }
+
+        Scanner scanner = new Scanner(System.in);
+
+        System.out.println("Welcome to SayakScript v5.7 - The Array Ace!");
+        System.out.println("Created by Sayak Biswas");
+        System.out.println("-------------------------------------------------------");
+        System.out.println("Hey there, coder! SayakScript now rocks arrays!");
+        System.out.println("Version: 5.7 (April 07, 2025)");
+        System.out.println("New in v5.7:");
+        System.out.println("  - Arrays: 'le sayak arr=[1, 2, 3];'");
+        System.out.println("Features:");
+        System.out.println("  - Variables: 'le sayak x=10;' (int), 'le sayak y=10.1;' (float), 'le sayak z=\"sayak\";' (str)");
+        System.out.println("  - Print: 'dekho(\"hello world\");'");
+        System.out.println("  - Input: 'bolo x;' (reads numbers or strings)");
+        System.out.println("  - Conditionals: 'agar(x>0){...}warna{...}'");
+        System.out.println("  - Loop: 'for sayak i in range(1 to 10) {dekho(i);}'");
+        System.out.println("  - Operators: +, *, >, <, >=, <=, == (Python-style '+'!)");
+        System.out.println("  - Clear: 'cls;'");
+        System.out.println("Try this: 'le sayak arr=[1, 2, 3]; dekho(arr);'");
+        System.out.println("Type 'exit' to stop!");
+        System.out.println("-------------------------------------------------------");
+
+        boolean open = false;
+        while (true) {
+            System.out.print(open ? "       ...> " : "SayakScript> ");
+            String input = scanner.nextLine();
+            try {
+                interpreter.endBlock(input);
+            } catch (Exception e) {
+                System.out.println("Error: " + e.getMessage());
+            }
+            if (input.equals("exit")) break;
+            try {
+                open = interpreter.executeLine(input);
+            } catch (Exception e) {
+                open = false;
+                System.out.println("Error: " + e.getMessage());
+            }
+        }
+        scanner.close();
+        if (optimizerReport) printOptimizerReport(interpreter);
+        printProfile(interpreter);
+        if (cacheReport && interpreter.cache() != null) System.out.println(interpreter.cache());
+    }
+
+    // Index into the limits of main for a --max-... option, or -1.
+    private static int limit(String arg) {
+        String[] options = {"--max-steps=", "--max-time=", "--max-array=", "--max-string=", "--max-values="};
+        for (int i = 0; i < options.length; i++) {
+            if (arg.startsWith(options[i])) return i;
+        }
+        return -1;
+    }
+
+    // Script runs that build the whole Program before running any of it. --precompiled loads it
+    // from the script's .sayakc file, or saves it there, and --mode=aot compiles its statements to
+    // a JVM class; whatever could not be compiled runs on the VM in the same session.
+    private static void runProgram(SayakScriptInterpreter interpreter, Path path, boolean precompiled, boolean aot,
+            Path aotCache, boolean aotReport) throws IOException {
+        String source = new String(Files.readAllBytes(path), StandardCharsets.UTF_8);
+        Program program = precompiled ? ProgramFile.load(source, ProgramFile.pathFor(path)) : Program.compile(source);
+        CompiledScript compiled = null;
+        if (aot) {
+            compiled = CompiledScript.compile(program, source, aotCache);
+            if (aotReport) System.out.println(compiled);
+        }
+        SayakScriptInterpreter session = session(program, null, OutputSink.buffered());
+        session.setTreeWalker(interpreter.treeWalker);
+        session.setProfiler(interpreter.profiler);
+        session.setGovernor(interpreter.governor);
+        session.setBatchInput(interpreter.batchInput);
+        session.execute(program, compiled);
+    }
+
+    // The profile goes to stderr so it never mixes with the script's own output.
+    private static void printProfile(SayakScriptInterpreter interpreter) {
+        if (interpreter.profiler() != null) interpreter.profiler().report(System.err);
+    }
+
+    private static void printOptimizerReport(SayakScriptInterpreter interpreter) {
+        Optimizer optimizer = interpreter.optimizer();
+        if (optimizer == null) return;
+        System.out.println("Optimizer: removed " + optimizer.removedNodes() + " nodes, hoisted "
+                + optimizer.hoistedExpressions() + " loop-invariant expressions");
+    }
+}
\ No newline at end of file
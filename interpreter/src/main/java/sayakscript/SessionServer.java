@@ -0,0 +1,152 @@
+package sayakscript;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.UncheckedIOException;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.channels.Channels;
+import java.nio.charset.StandardCharsets;
+import java.util.Scanner;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicLong;
+
+// Runs scripts for clients of a local TCP socket, one session per connection. A client sends the
+// script, then a line holding only ".", then whatever its bolo statements should read; the
+// script's output (ending with "Error: ..." if it fails) comes back on the same connection, which
+// is closed when the script is done.
+//
+// Sessions share compiled programs through one ProgramCache and nothing else: each has its own
+// frame, input and output, and runs on its own thread (a virtual thread where the JVM has them).
+// Programs are shared, so sessions always run bytecode, never the self-rewriting tree walker.
+// Resource limits given on the command line apply to each session separately, and with
+// --slice-ms sessions take turns on the CPUs (see TimeSlicer).
+final class SessionServer {
+    private static final int OUTPUT_BUFFER_SIZE = 1 << 13;
+    private static final int SUB_BUCKET_BITS = 4;
+    private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+
+    private final ServerSocket socket;
+    private final ProgramCache programs;
+    private final ExecutorService sessions;
+    private final boolean virtualThreads;
+    private final Governor limits; // copied for each session; null when sessions run unlimited
+    private final AtomicLong ids = new AtomicLong();
+    // Session latencies in log-scale buckets, SUB_BUCKETS per power of two, so memory stays fixed
+    // however long the server runs and a percentile is within about 6% of the exact value.
+    private final long[] latencies = new long[64 * SUB_BUCKETS];
+    private long completed, totalNanos, maxNanos;
+
+    SessionServer(int port, int cacheSize, Governor limits) throws IOException {
+        this.limits = limits;
+        this.socket = new ServerSocket(port, 1024, InetAddress.getLoopbackAddress());
+        this.programs = cacheSize > 0 ? new ProgramCache(cacheSize) : null;
+        ExecutorService executor;
+        boolean virtual;
+        try {
+            executor = (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+            virtual = true;
+        } catch (ReflectiveOperationException e) {
+            executor = Executors.newCachedThreadPool(); // before Java 21: one platform thread per session
+            virtual = false;
+        }
+        this.sessions = executor;
+        this.virtualThreads = virtual;
+    }
+
+    void serve() throws IOException {
+        System.out.println("Serving sessions on " + socket.getLocalSocketAddress()
+                + (virtualThreads ? " (virtual threads)" : " (platform threads)"));
+        Runtime.getRuntime().addShutdownHook(new Thread(() -> System.out.println(summary())));
+        while (true) {
+            Socket client = socket.accept();
+            sessions.execute(() -> session(client));
+        }
+    }
+
+    private void session(Socket client) {
+        long id = ids.incrementAndGet();
+        try (Socket connection = client) {
+            BufferedReader in = new BufferedReader(new InputStreamReader(connection.getInputStream(), StandardCharsets.UTF_8));
+            StringBuilder script = new StringBuilder();
+            String line;
+            while ((line = in.readLine()) != null && !line.equals(".")) script.append(line).append('\n');
+
+            long start = System.nanoTime();
+            String source = script.toString();
+            Program program = programs != null ? programs.get(source) : null;
+            boolean cached = program != null;
+            if (!cached) {
+                program = Program.compile(source);
+                if (programs != null) programs.put(source, program);
+            }
+            OutputSink out = OutputSink.buffered(Channels.newChannel(connection.getOutputStream()), OUTPUT_BUFFER_SIZE,
+                    StandardCharsets.UTF_8);
+            String result = "ok";
+            Governor governor = limits != null ? limits.fresh() : null;
+            TimeSlicer slicer = governor != null ? governor.slicer() : null;
+            if (slicer != null) slicer.begin();
+            if (governor != null) governor.start();
+            try {
+                SayakScriptInterpreter session = SayakScriptInterpreter.session(program, new Scanner(in), out);
+                session.setGovernor(governor);
+                session.execute(program);
+            } catch (RuntimeException e) {
+                out.println("Error: " + e.getMessage());
+                out.flush();
+                result = "error";
+            } finally {
+                if (slicer != null) slicer.end();
+            }
+            long nanos = System.nanoTime() - start;
+            record(nanos);
+            System.out.printf("session %d: %.3f ms, %s%s%n", id, nanos / 1e6, result, cached ? ", cached program" : "");
+        } catch (IOException | UncheckedIOException e) {
+            System.out.println("session " + id + ": connection failed (" + e.getMessage() + ")");
+        }
+    }
+
+    private synchronized void record(long nanos) {
+        latencies[bucket(nanos)]++;
+        completed++;
+        totalNanos += nanos;
+        maxNanos = Math.max(maxNanos, nanos);
+    }
+
+    synchronized String summary() {
+        if (completed == 0) return "Sessions: none completed";
+        return String.format("Sessions: %d completed, latency mean %.3f ms, p50 %.3f ms, p99 %.3f ms, max %.3f ms%s",
+                completed, totalNanos / 1e6 / completed, percentile(0.5) / 1e6, percentile(0.99) / 1e6, maxNanos / 1e6,
+                programs != null ? "\n" + programs : "");
+    }
+
+    // The top of the bucket holding the latency that fraction of sessions did not exceed.
+    private long percentile(double fraction) {
+        long rank = Math.max(1, (long) Math.ceil(completed * fraction));
+        long seen = 0;
+        for (int i = 0; i < latencies.length; i++) {
+            seen += latencies[i];
+            if (seen >= rank) return Math.min(bucketEnd(i), maxNanos);
+        }
+        return maxNanos;
+    }
+
+    // Values below SUB_BUCKETS get a bucket each; above that, each power of two is split into
+    // SUB_BUCKETS equal buckets by the bits after the leading one.
+    private static int bucket(long nanos) {
+        if (nanos < SUB_BUCKETS) return (int) Math.max(nanos, 0);
+        int exponent = 63 - Long.numberOfLeadingZeros(nanos);
+        int sub = (int) (nanos >>> (exponent - SUB_BUCKET_BITS)) & (SUB_BUCKETS - 1);
+        return (exponent - SUB_BUCKET_BITS + 1) * SUB_BUCKETS + sub;
+    }
+
+    private static long bucketEnd(int bucket) {
+        if (bucket < SUB_BUCKETS) return bucket;
+        int shift = bucket / SUB_BUCKETS - 1;
+        long start = (long) (SUB_BUCKETS + bucket % SUB_BUCKETS) << shift;
+        return start + (1L << shift) - 1;
+    }
+}
@@ -0,0 +1,21 @@
+package sayakscript;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+// One top-level statement run under --profile, for a JFR recording
+// (java -XX:StartFlightRecording ... --profile script.sayak). The event's duration is the
+// statement's run time.
+@Name("sayakscript.Statement")
+@Label("Statement")
+@Category("SayakScript")
+@Description("A top-level statement executed by the profiling interpreter")
+final class StatementEvent extends jdk.jfr.Event {
+    @Label("Line")
+    int line;
+
+    @Label("Statement")
+    String statement;
+}
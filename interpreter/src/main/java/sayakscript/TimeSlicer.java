@@ -0,0 +1,35 @@
+package sayakscript;
+
+import java.util.concurrent.Semaphore;
+
+// Lets server sessions take turns on the CPUs. A session must hold a turn to run, at most one
+// session per processor holds one at a time, and a session that has run for a whole slice while
+// others wait hands its turn to the one that has waited longest. Java cannot suspend a thread
+// from outside, so this is cooperative: sessions give way where their Governor checks the clock,
+// which every loop iteration reaches within CHECK_INTERVAL steps.
+final class TimeSlicer {
+    final long sliceNanos;
+    private final Semaphore turns;
+
+    TimeSlicer(long sliceMillis, int concurrency) {
+        this.sliceNanos = sliceMillis * 1_000_000;
+        this.turns = new Semaphore(concurrency, true);
+    }
+
+    void begin() {
+        turns.acquireUninterruptibly();
+    }
+
+    void end() {
+        turns.release();
+    }
+
+    // Returns how long the session waited for its next turn.
+    long yieldTurn() {
+        if (!turns.hasQueuedThreads()) return 0;
+        long start = System.nanoTime();
+        turns.release();
+        turns.acquireUninterruptibly();
+        return System.nanoTime() - start;
+    }
+}
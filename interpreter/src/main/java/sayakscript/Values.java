@@ -0,0 +1,122 @@
+package sayakscript;
+
+// Value representation and operator semantics shared by the tree walker and the bytecode VM.
+//
+// A value lives in a (tag, bits) pair. For ints and floats the tag is INT or FLOAT and the
+// number is kept unboxed in bits (the int itself, or the float's raw bits). For anything else
+// the tag is the value object and bits is unused. A null tag means "undefined". Boxed Integer
+// and Float objects only appear inside mixed-type arrays and at the input boundary.
+final class Values {
+    static final Object INT = new Tag("int");
+    static final Object FLOAT = new Tag("float");
+
+    private static final class Tag {
+        private final String name;
+
+        Tag(String name) {
+            this.name = name;
+        }
+
+        @Override
+        public String toString() {
+            return name;
+        }
+    }
+
+    private Values() {}
+
+    static boolean isNumber(Object tag) {
+        return tag == INT || tag == FLOAT;
+    }
+
+    // Both numbers, at least one of them a float: the pair that '+', '*' and comparisons do in float.
+    static boolean isFloatPair(Object leftTag, Object rightTag) {
+        return (leftTag == FLOAT && isNumber(rightTag)) || (leftTag == INT && rightTag == FLOAT);
+    }
+
+    static float toFloat(Object tag, long bits) {
+        return tag == INT ? (float) (int) bits : Float.intBitsToFloat((int) bits);
+    }
+
+    static long floatBits(float value) {
+        return Float.floatToRawIntBits(value);
+    }
+
+    static Object tag(Object value) {
+        if (value instanceof Integer) return INT;
+        if (value instanceof Float) return FLOAT;
+        return value;
+    }
+
+    static long bits(Object value) {
+        if (value instanceof Integer) return (Integer) value;
+        if (value instanceof Float) return floatBits((Float) value);
+        return 0;
+    }
+
+    static Object box(Object tag, long bits) {
+        if (tag == INT) return (int) bits;
+        if (tag == FLOAT) return Float.intBitsToFloat((int) bits);
+        return tag;
+    }
+
+    static String toString(Object tag, long bits) {
+        if (tag == INT) return Integer.toString((int) bits);
+        if (tag == FLOAT) return Float.toString(Float.intBitsToFloat((int) bits));
+        return String.valueOf(tag);
+    }
+
+    // The non-numeric half of '+': Python-style string concatenation. Long results are
+    // ConcatStrings, so repeatedly appending to a string does not copy it each time.
+    static Object concat(Object leftTag, long leftBits, Object rightTag, long rightBits) {
+        return ConcatString.concat(text(leftTag, leftBits), text(rightTag, rightBits));
+    }
+
+    private static Object text(Object tag, long bits) {
+        return tag instanceof ConcatString ? tag : toString(tag, bits);
+    }
+
+    static void requireMultipliable(Object leftTag, Object rightTag) {
+        if (!isNumber(leftTag) || !isNumber(rightTag)) {
+            throw new RuntimeException("Multiplication (*) requires numbers");
+        }
+    }
+
+    static void requireNumbers(Object leftTag, Object rightTag) {
+        if (!isNumber(leftTag) || !isNumber(rightTag)) {
+            throw new RuntimeException("Comparison operators require numbers");
+        }
+    }
+
+    // Applies a BinaryOpNode operator to boxed operands; used to fold constants ahead of time.
+    static Object fold(int op, Object left, Object right) {
+        Object leftTag = tag(left), rightTag = tag(right);
+        long leftBits = bits(left), rightBits = bits(right);
+        switch (op) {
+            case BinaryOpNode.ADD:
+                if (leftTag == INT && rightTag == INT) return (int) leftBits + (int) rightBits;
+                if (isNumber(leftTag) && isNumber(rightTag)) return toFloat(leftTag, leftBits) + toFloat(rightTag, rightBits);
+                return concat(leftTag, leftBits, rightTag, rightBits).toString();
+            case BinaryOpNode.MUL:
+                requireMultipliable(leftTag, rightTag);
+                if (leftTag == INT && rightTag == INT) return (int) leftBits * (int) rightBits;
+                return toFloat(leftTag, leftBits) * toFloat(rightTag, rightBits);
+            default:
+                requireNumbers(leftTag, rightTag);
+                float l = toFloat(leftTag, leftBits), r = toFloat(rightTag, rightBits);
+                switch (op) {
+                    case BinaryOpNode.GT: return l > r ? 1 : 0;
+                    case BinaryOpNode.LT: return l < r ? 1 : 0;
+                    case BinaryOpNode.GE: return l >= r ? 1 : 0;
+                    case BinaryOpNode.LE: return l <= r ? 1 : 0;
+                    case BinaryOpNode.EQ: return l == r ? 1 : 0;
+                    default: throw new RuntimeException("Unknown operator");
+                }
+        }
+    }
+
+    static boolean isTrue(Object tag, long bits) {
+        if (!isNumber(tag)) throw new RuntimeException("Condition must be numeric (0 or 1)");
+        return toFloat(tag, bits) != 0;
+    }
+}